@@ -0,0 +1,125 @@
+package org.protege.editor.owl.integration;
+
+import org.protege.editor.owl.client.api.Client;
+import org.protege.editor.owl.server.api.CommitBundle;
+import org.protege.editor.owl.server.versioning.api.ChangeHistory;
+import org.protege.editor.owl.server.versioning.api.ServerDocument;
+
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import edu.stanford.protege.metaproject.api.Description;
+import edu.stanford.protege.metaproject.api.Name;
+import edu.stanford.protege.metaproject.api.ProjectId;
+import edu.stanford.protege.metaproject.api.ProjectOptions;
+import edu.stanford.protege.metaproject.api.UserId;
+
+/**
+ * Runs the blocking operations of a {@link Client} on a bounded pool of worker threads and
+ * returns their results as {@link CompletableFuture}s, so that a caller can have many RMI
+ * calls in flight without dedicating one of its own threads to each of them. Operations that
+ * fail complete the future exceptionally with the exception thrown by the client.
+ * <p>
+ * The client API does not promise that a client can be used by several threads at once, so
+ * every worker thread logs in its own client on its first call and keeps it. The pool size
+ * bounds the number of concurrent calls to the server; further calls wait in the queue of
+ * the pool.
+ */
+final class AsyncClient implements AutoCloseable {
+
+    /**
+     * A blocking operation on the wrapped client.
+     */
+    @FunctionalInterface
+    interface ClientCall<T> {
+        T call(Client client) throws Exception;
+    }
+
+    /**
+     * Logs in the client of a worker thread.
+     */
+    @FunctionalInterface
+    interface ClientFactory {
+        Client login() throws Exception;
+    }
+
+    private final ClientFactory clientFactory;
+
+    private final ThreadLocal<Client> workerClient = new ThreadLocal<>();
+
+    private final ExecutorService executor;
+
+    AsyncClient(ClientFactory clientFactory, int maxConcurrentCalls) {
+        this.clientFactory = clientFactory;
+        this.executor = Executors.newFixedThreadPool(maxConcurrentCalls, new WorkerThreadFactory());
+    }
+
+    CompletableFuture<ServerDocument> createProject(ProjectId projectId, Name projectName, Description description,
+            UserId owner, Optional<ProjectOptions> options, Optional<CommitBundle> initialCommit) {
+        return submit(c -> c.createProject(projectId, projectName, description, owner, options, initialCommit));
+    }
+
+    CompletableFuture<ServerDocument> openProject(ProjectId projectId) {
+        return submit(c -> c.openProject(projectId));
+    }
+
+    CompletableFuture<ChangeHistory> commit(ProjectId projectId, CommitBundle commitBundle) {
+        return submit(c -> c.commit(projectId, commitBundle));
+    }
+
+    CompletableFuture<Void> deleteProject(ProjectId projectId, boolean includeFile) {
+        return submit(c -> {
+            c.deleteProject(projectId, includeFile);
+            return null;
+        });
+    }
+
+    /**
+     * Runs any other operation of the wrapped client asynchronously.
+     */
+    <T> CompletableFuture<T> submit(ClientCall<T> call) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        executor.execute(() -> {
+            try {
+                future.complete(call.call(getWorkerClient()));
+            }
+            catch (Throwable t) {
+                future.completeExceptionally(t);
+            }
+        });
+        return future;
+    }
+
+    private Client getWorkerClient() throws Exception {
+        Client client = workerClient.get();
+        if (client == null) {
+            client = clientFactory.login();
+            workerClient.set(client);
+        }
+        return client;
+    }
+
+    /**
+     * Stops the worker threads after the calls already submitted have finished.
+     */
+    @Override
+    public void close() {
+        executor.shutdown();
+    }
+
+    private static class WorkerThreadFactory implements ThreadFactory {
+
+        private final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread thread = new Thread(r, "async-client-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package org.protege.editor.owl.integration;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+import org.protege.editor.owl.client.util.ChangeUtils;
+import org.protege.editor.owl.client.util.ClientUtils;
+import org.protege.editor.owl.server.api.CommitBundle;
+import org.protege.editor.owl.server.policy.CommitBundleImpl;
+import org.protege.editor.owl.server.versioning.Commit;
+import org.protege.editor.owl.server.versioning.api.ChangeHistory;
+import org.protege.editor.owl.server.versioning.api.ServerDocument;
+
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.Test;
+import org.semanticweb.owlapi.model.OWLOntologyChange;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+import edu.stanford.protege.metaproject.api.ProjectId;
+
+/**
+ * Opens many projects once in a sequential loop over the blocking {@link org.protege.editor.owl.client.api.Client}
+ * and once concurrently through an {@link AsyncClient}, and reports the total time of both.
+ * The projects are created through the same {@link AsyncClient}, so its worker threads have
+ * logged in their own clients before the clock starts.
+ * <p>
+ * The number of projects can be set with <code>-Dasync.projects=200</code> and the number of
+ * concurrent calls with <code>-Dasync.calls=32</code>.
+ */
+public class AsyncOpenProjectIT extends BaseTest {
+
+    private static final int NUMBER_OF_PROJECTS = Integer.getInteger("async.projects", 200);
+    private static final int MAX_CONCURRENT_CALLS = Integer.getInteger("async.calls", 32);
+
+    private static final PerformanceReport report = new PerformanceReport("async-open-project");
+
+    private final List<ProjectId> projectIds = new ArrayList<>();
+
+    private AsyncClient asyncAdmin;
+
+    @Before
+    public void createProjects() throws Exception {
+        asyncAdmin = new AsyncClient(() -> login(f.getUserId("root"), f.getPlainPassword("rootpwd")),
+                MAX_CONCURRENT_CALLS);
+        List<OWLOntologyChange> changes = PizzaOntology.getInitialChanges();
+        Commit initialCommit = ClientUtils.createCommit(getAdmin(), "First commit", changes);
+        CommitBundle commitBundle = new CommitBundleImpl(R0, initialCommit);
+
+        long suffix = System.currentTimeMillis(); // currentTimeMilis() for uniqueness
+        List<CompletableFuture<ServerDocument>> creations = new ArrayList<>();
+        for (int i = 0; i < NUMBER_OF_PROJECTS; i++) {
+            ProjectId projectId = f.getProjectId("pizza-" + suffix + "-" + i);
+            projectIds.add(projectId);
+            creations.add(asyncAdmin.createProject(projectId, f.getName("Pizza Project " + i),
+                    f.getDescription("Asynchronous open"), f.getUserId("root"),
+                    Optional.empty(), Optional.of(commitBundle)));
+        }
+        CompletableFuture.allOf(creations.toArray(new CompletableFuture<?>[0])).get();
+    }
+
+    @Test
+    public void shouldOpenProjectsConcurrently() throws Exception {
+        long start = System.nanoTime();
+        for (ProjectId projectId : projectIds) {
+            getAdmin().openProject(projectId);
+        }
+        long sequential = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        List<CompletableFuture<ServerDocument>> openings = new ArrayList<>();
+        for (ProjectId projectId : projectIds) {
+            openings.add(asyncAdmin.openProject(projectId));
+        }
+        CompletableFuture.allOf(openings.toArray(new CompletableFuture<?>[0])).get();
+        long concurrent = System.nanoTime() - start;
+
+        String scenario = NUMBER_OF_PROJECTS + " projects, " + MAX_CONCURRENT_CALLS + " calls";
+        report.record(scenario, "sequential", PerformanceReport.millis(sequential), "ms");
+        report.record(scenario, "concurrent", PerformanceReport.millis(concurrent), "ms");
+        report.record(scenario, "speedup", (double) sequential / concurrent, "x");
+
+        // Assert every asynchronously opened project is complete
+        for (CompletableFuture<ServerDocument> opening : openings) {
+            ChangeHistory changeHistoryFromServer = ChangeUtils.getAllChanges(opening.get());
+            assertThat(changeHistoryFromServer.getHeadRevision(), is(R1));
+            assertThat(changeHistoryFromServer.getChangesForRevision(R1).size(), is(945));
+        }
+    }
+
+    @After
+    public void removeProjects() throws Exception {
+        List<CompletableFuture<Void>> deletions = new ArrayList<>();
+        for (ProjectId projectId : projectIds) {
+            deletions.add(asyncAdmin.deleteProject(projectId, true));
+        }
+        CompletableFuture.allOf(deletions.toArray(new CompletableFuture<?>[0])).get();
+        asyncAdmin.close();
+    }
+
+    @AfterClass
+    public static void writeReport() throws Exception {
+        report.write();
+    }
+}
@@ -2,19 +2,21 @@ package org.protege.editor.owl.integration;
 
 import java.io.File;
 import java.net.URISyntaxException;
+import java.util.Collections;
+import java.util.List;
 import java.util.UUID;
 
 import org.hamcrest.Description;
 import org.hamcrest.TypeSafeMatcher;
 import org.junit.Before;
+import org.junit.ClassRule;
 import org.protege.editor.owl.client.LocalClient;
 import org.protege.editor.owl.client.api.Client;
-import org.protege.editor.owl.client.ui.DefaultUserAuthenticator;
-import org.protege.editor.owl.client.util.ServerUtils;
-import org.protege.editor.owl.server.transport.rmi.RemoteLoginService;
-import org.protege.editor.owl.server.transport.rmi.RmiLoginService;
+import org.protege.editor.owl.client.util.ClientUtils;
 import org.protege.editor.owl.server.versioning.api.DocumentRevision;
 import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyChange;
 import org.semanticweb.owlapi.model.OWLOntologyManager;
 import org.semanticweb.owlapi.model.OWLRuntimeException;
 
@@ -26,8 +28,11 @@ import edu.stanford.protege.metaproject.api.UserId;
 
 public abstract class BaseTest {
 
-    protected static final String SERVER_ADDRESS = "rmi://localhost:5100";
-    protected static final int REGISTRY_PORT = 5200;
+    @ClassRule
+    public static final ServerFixture server = ServerFixture.getInstance();
+
+    protected static final String SERVER_ADDRESS = server.getServerAddress();
+    protected static final int REGISTRY_PORT = server.getRegistryPort();
 
     protected static final DocumentRevision R0 = DocumentRevision.START_REVISION;
     protected static final DocumentRevision R1 = DocumentRevision.create(1);
@@ -56,6 +61,20 @@ public abstract class BaseTest {
                 throw new OWLRuntimeException("File not found", e);
             }
         }
+
+        private static List<OWLOntologyChange> initialChanges;
+
+        /**
+         * Returns the changes of the initial commit of a pizza project. The ontology is parsed
+         * only once per JVM and the changes are shared by all tests, so they must not be modified.
+         */
+        static synchronized List<OWLOntologyChange> getInitialChanges() throws Exception {
+            if (initialChanges == null) {
+                OWLOntology ontology = OWLManager.createOWLOntologyManager().loadOntologyFromOntologyDocument(getResource());
+                initialChanges = Collections.unmodifiableList(ClientUtils.getUncommittedChanges(ontology));
+            }
+            return initialChanges;
+        }
     }
 
     @Before
@@ -74,12 +93,36 @@ public abstract class BaseTest {
         return admin;
     }
 
+    /**
+     * Logs in the given user. With <code>-Dclient.sessionPool=true</code> the login service
+     * stub and the user's token are taken from the {@link SessionPool}, otherwise every login
+     * looks up the login service and authenticates afresh, as a new editor session does.
+     * With <code>-Dclient.metrics=true</code> the returned client is an {@link InstrumentedClient}
+     * whose operations are recorded in {@link ClientMetrics}, together with the duration of
+     * the login itself. Neither a pooled nor an instrumented client can be cast to
+     * {@link LocalClient}.
+     */
     protected static Client login(UserId userId, PlainPassword password) throws Exception {
-        RemoteLoginService loginService = (RemoteLoginService) ServerUtils
-                .getRemoteService(SERVER_ADDRESS, REGISTRY_PORT, RmiLoginService.LOGIN_SERVICE);
-        DefaultUserAuthenticator authenticator = new DefaultUserAuthenticator(loginService);
-        AuthToken authToken = authenticator.hasValidCredentials(userId, password);
-        return new LocalClient(authToken, SERVER_ADDRESS, REGISTRY_PORT);
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            Client client;
+            if (SessionPool.isEnabled()) {
+                client = SessionPool.getInstance().login(SERVER_ADDRESS, REGISTRY_PORT, userId, password);
+            }
+            else {
+                AuthToken authToken = SessionPool.authenticate(
+                        SessionPool.lookupLoginService(SERVER_ADDRESS, REGISTRY_PORT), userId, password);
+                client = new LocalClient(authToken, SERVER_ADDRESS, REGISTRY_PORT);
+            }
+            failed = false;
+            return ClientMetrics.isEnabled() ? InstrumentedClient.wrap(client, ClientMetrics.getInstance()) : client;
+        }
+        finally {
+            if (ClientMetrics.isEnabled()) {
+                ClientMetrics.getInstance().record("login", System.nanoTime() - start, -1, failed);
+            }
+        }
     }
 
     protected static String uuid8char() {
@@ -0,0 +1,139 @@
+package org.protege.editor.owl.integration;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.semanticweb.owlapi.apibinding.OWLFunctionalSyntaxFactory.Class;
+import static org.semanticweb.owlapi.apibinding.OWLFunctionalSyntaxFactory.Declaration;
+import static org.semanticweb.owlapi.apibinding.OWLFunctionalSyntaxFactory.IRI;
+import static org.semanticweb.owlapi.apibinding.OWLFunctionalSyntaxFactory.SubClassOf;
+
+import org.protege.editor.owl.client.util.ChangeUtils;
+import org.protege.editor.owl.client.util.ClientUtils;
+import org.protege.editor.owl.server.api.CommitBundle;
+import org.protege.editor.owl.server.policy.CommitBundleImpl;
+import org.protege.editor.owl.server.versioning.Commit;
+import org.protege.editor.owl.server.versioning.api.ChangeHistory;
+import org.protege.editor.owl.server.versioning.api.DocumentRevision;
+import org.protege.editor.owl.server.versioning.api.VersionedOWLOntology;
+
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.Test;
+import org.semanticweb.owlapi.model.AddAxiom;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyChange;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import edu.stanford.protege.metaproject.api.ProjectId;
+
+/**
+ * Compares the edit throughput of a curation bot that pushes many two-axiom edits (the edit
+ * of {@link CommitChangesTest#shouldCommitAddition()}) one commit at a time, i.e., one commit
+ * call and one update of the local history per edit, with submitting the same edits as one
+ * {@link CommitBatch}, i.e., one commit call for all of them. The change lists of both runs
+ * are prepared before the clock starts, so both runs time applying the edits, creating the
+ * commits and sending them.
+ * <p>
+ * The number of commits can be set with <code>-Dbatch.commits=500</code>.
+ */
+public class BatchCommitIT extends BaseTest {
+
+    private static final OWLClass DOMAIN_CONCEPT = Class(IRI(PizzaOntology.getId() + "#", "DomainConcept"));
+
+    private static final int NUMBER_OF_COMMITS = Integer.getInteger("batch.commits", 500);
+
+    private static final PerformanceReport report = new PerformanceReport("batch-commit");
+
+    private ProjectId projectId;
+
+    @Before
+    public void createProject() throws Exception {
+        projectId = f.getProjectId("pizza-" + System.currentTimeMillis()); // currentTimeMilis() for uniqueness
+        List<OWLOntologyChange> changes = PizzaOntology.getInitialChanges();
+        Commit initialCommit = ClientUtils.createCommit(getAdmin(), "First commit", changes);
+        CommitBundle commitBundle = new CommitBundleImpl(R0, initialCommit);
+        getAdmin().createProject(projectId, f.getName("Pizza Project"), f.getDescription("Batch commit"),
+                f.getUserId("root"), Optional.empty(), Optional.of(commitBundle));
+    }
+
+    @Test
+    public void shouldCommitBatchAsOneRevision() throws Exception {
+        VersionedOWLOntology vont = ClientUtils.buildVersionedOntology(getAdmin().openProject(projectId), owlManager);
+        OWLOntology workingOntology = vont.getOntology();
+
+        List<List<OWLOntologyChange>> singleChanges = new ArrayList<>();
+        List<List<OWLOntologyChange>> batchChanges = new ArrayList<>();
+        for (int i = 0; i < NUMBER_OF_COMMITS; i++) {
+            singleChanges.add(newConcept(workingOntology, "SingleConcept" + i));
+            batchChanges.add(newConcept(workingOntology, "BatchConcept" + i));
+        }
+
+        /*
+         * One commit at a time
+         */
+        long start = System.nanoTime();
+        for (int i = 0; i < NUMBER_OF_COMMITS; i++) {
+            List<OWLOntologyChange> changes = singleChanges.get(i);
+            owlManager.applyChanges(changes);
+            Commit commit = ClientUtils.createCommit(getAdmin(), "Add SingleConcept" + i, changes);
+            ChangeHistory approvedChanges = getAdmin().commit(projectId, new CommitBundleImpl(vont.getHeadRevision(), commit));
+            vont.update(approvedChanges);
+        }
+        long singleElapsed = System.nanoTime() - start;
+
+        /*
+         * The same number of edits as one batch
+         */
+        start = System.nanoTime();
+        CommitBatch batch = new CommitBatch(getAdmin(), projectId);
+        for (int i = 0; i < NUMBER_OF_COMMITS; i++) {
+            List<OWLOntologyChange> changes = batchChanges.get(i);
+            owlManager.applyChanges(changes);
+            batch.add("Add BatchConcept" + i, changes);
+        }
+        ChangeHistory approvedBatch = batch.submit(vont);
+        long batchElapsed = System.nanoTime() - start;
+
+        String scenario = NUMBER_OF_COMMITS + " edits";
+        report.record(scenario, "oneAtATime", NUMBER_OF_COMMITS / (singleElapsed / 1e9), "edits/s");
+        report.record(scenario, "batch", NUMBER_OF_COMMITS / (batchElapsed / 1e9), "edits/s");
+        report.record(scenario, "speedup", (double) singleElapsed / batchElapsed, "x");
+
+        // Assert the batch became one revision holding all of its edits
+        DocumentRevision expectedHead = DocumentRevision.create(2 + NUMBER_OF_COMMITS);
+        assertThat(approvedBatch.getHeadRevision(), is(expectedHead));
+        assertThat(vont.getHeadRevision(), is(expectedHead));
+        assertThat(batch.size(), is(0));
+
+        ChangeHistory changeHistoryFromServer = ChangeUtils.getAllChanges(vont.getServerDocument());
+        assertThat(changeHistoryFromServer.getHeadRevision(), is(expectedHead));
+        assertThat(changeHistoryFromServer.getRevisions().size(), is(2 + NUMBER_OF_COMMITS));
+        for (int i = 2; i <= 1 + NUMBER_OF_COMMITS; i++) {
+            assertThat(changeHistoryFromServer.getChangesForRevision(DocumentRevision.create(i)).size(), is(2));
+        }
+        assertThat(changeHistoryFromServer.getChangesForRevision(expectedHead).size(), is(2 * NUMBER_OF_COMMITS));
+    }
+
+    private static List<OWLOntologyChange> newConcept(OWLOntology ontology, String name) {
+        OWLClass concept = Class(IRI(DOMAIN_CONCEPT.getIRI().getNamespace(), name));
+        List<OWLOntologyChange> changes = new ArrayList<>();
+        changes.add(new AddAxiom(ontology, Declaration(concept)));
+        changes.add(new AddAxiom(ontology, SubClassOf(concept, DOMAIN_CONCEPT)));
+        return changes;
+    }
+
+    @After
+    public void removeProject() throws Exception {
+        getAdmin().deleteProject(projectId, true);
+    }
+
+    @AfterClass
+    public static void writeReport() throws Exception {
+        report.write();
+    }
+}
@@ -0,0 +1,96 @@
+package org.protege.editor.owl.integration;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-operation latency distributions, payload sizes and error counts of the client calls
+ * made through {@link InstrumentedClient}.
+ * <p>
+ * Payload sizes are the serialized size of the call arguments and the return value. Computing
+ * them serializes every payload a second time, so they are only recorded when the
+ * <code>client.metrics.payload</code> system property is set to <code>true</code>.
+ * <p>
+ * The tests only create instrumented clients when the <code>client.metrics</code> system
+ * property is set to <code>true</code>, so by default they get the plain client class.
+ */
+class ClientMetrics {
+
+    private static final ClientMetrics instance = new ClientMetrics(Boolean.getBoolean("client.metrics.payload"));
+
+    private final boolean recordPayloadSizes;
+
+    private final ConcurrentMap<String, OperationMetrics> operations = new ConcurrentSkipListMap<>();
+
+    ClientMetrics(boolean recordPayloadSizes) {
+        this.recordPayloadSizes = recordPayloadSizes;
+    }
+
+    /**
+     * Returns whether the tests should wrap their clients in an {@link InstrumentedClient}.
+     */
+    static boolean isEnabled() {
+        return Boolean.getBoolean("client.metrics");
+    }
+
+    /**
+     * Returns the metrics shared by all the clients created in this JVM.
+     */
+    static ClientMetrics getInstance() {
+        return instance;
+    }
+
+    boolean isRecordingPayloadSizes() {
+        return recordPayloadSizes;
+    }
+
+    /**
+     * @param operation
+     *          The operation name, e.g., <code>commit</code>
+     * @param latencyNanos
+     *          The duration of the call
+     * @param payloadBytes
+     *          The payload size of the call or a negative value if it is not known
+     * @param failed
+     *          Whether the call threw an exception
+     */
+    void record(String operation, long latencyNanos, long payloadBytes, boolean failed) {
+        OperationMetrics metrics = operations.computeIfAbsent(operation, op -> new OperationMetrics());
+        metrics.latency.recordValue(latencyNanos);
+        if (payloadBytes >= 0) {
+            metrics.payload.recordValue(payloadBytes);
+        }
+        if (failed) {
+            metrics.errors.incrementAndGet();
+        }
+    }
+
+    void writeTo(PerformanceReport report) {
+        for (Map.Entry<String, OperationMetrics> entry : operations.entrySet()) {
+            String operation = entry.getKey();
+            OperationMetrics metrics = entry.getValue();
+            report.record(operation, "calls", metrics.latency.getTotalCount(), "calls");
+            report.record(operation, "errors", metrics.errors.get(), "calls");
+            report.record(operation, "p50", PerformanceReport.millis(metrics.latency.getValueAtPercentile(50)), "ms");
+            report.record(operation, "p99", PerformanceReport.millis(metrics.latency.getValueAtPercentile(99)), "ms");
+            report.record(operation, "p999", PerformanceReport.millis(metrics.latency.getValueAtPercentile(99.9)), "ms");
+            report.record(operation, "max", PerformanceReport.millis(metrics.latency.getMaxValue()), "ms");
+            if (metrics.payload.getTotalCount() > 0) {
+                report.record(operation, "meanPayload", metrics.payload.getMean(), "bytes");
+                report.record(operation, "maxPayload", metrics.payload.getMaxValue(), "bytes");
+            }
+        }
+    }
+
+    private static class OperationMetrics {
+
+        private final Histogram latency = new ConcurrentHistogram(3);
+        private final Histogram payload = new ConcurrentHistogram(3);
+        private final AtomicLong errors = new AtomicLong();
+    }
+}
@@ -0,0 +1,23 @@
+package org.protege.editor.owl.integration;
+
+import org.junit.runner.Result;
+import org.junit.runner.notification.RunListener;
+
+/**
+ * Writes the {@link ClientMetrics} of the whole test run to
+ * <code>target/performance/&lt;client.metrics.report&gt;.csv</code> once the run has finished,
+ * if the run was started with <code>-Dclient.metrics=true</code>. The listener is registered
+ * in the surefire and failsafe configuration.
+ */
+public class ClientMetricsListener extends RunListener {
+
+    @Override
+    public void testRunFinished(Result result) throws Exception {
+        if (!ClientMetrics.isEnabled()) {
+            return;
+        }
+        PerformanceReport report = new PerformanceReport(System.getProperty("client.metrics.report", "client-metrics"));
+        ClientMetrics.getInstance().writeTo(report);
+        report.write();
+    }
+}
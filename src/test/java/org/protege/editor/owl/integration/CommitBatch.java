@@ -0,0 +1,64 @@
+package org.protege.editor.owl.integration;
+
+import org.protege.editor.owl.client.api.Client;
+import org.protege.editor.owl.client.util.ClientUtils;
+import org.protege.editor.owl.server.policy.CommitBundleImpl;
+import org.protege.editor.owl.server.versioning.Commit;
+import org.protege.editor.owl.server.versioning.api.ChangeHistory;
+import org.protege.editor.owl.server.versioning.api.VersionedOWLOntology;
+
+import org.semanticweb.owlapi.model.OWLOntologyChange;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import edu.stanford.protege.metaproject.api.ProjectId;
+
+/**
+ * Collects an ordered list of edits and submits them as a single commit, i.e., one commit
+ * bundle and one {@link Client#commit} call for the whole batch instead of one per edit. The
+ * changes of the edits are merged into their net effect (see {@link NetChangeSet}) and the
+ * comments of the edits are joined, one per line, into the comment of the commit. The batch
+ * becomes one revision of the project.
+ * <p>
+ * If the server rejects the commit, nothing is applied locally and the batch keeps its edits.
+ */
+final class CommitBatch {
+
+    private final Client client;
+    private final ProjectId projectId;
+
+    private final List<String> comments = new ArrayList<>();
+    private final NetChangeSet changes = new NetChangeSet();
+
+    CommitBatch(Client client, ProjectId projectId) {
+        this.client = client;
+        this.projectId = projectId;
+    }
+
+    CommitBatch add(String comment, List<OWLOntologyChange> edit) {
+        comments.add(comment);
+        changes.addAll(edit);
+        return this;
+    }
+
+    /**
+     * Returns the number of edits in the batch.
+     */
+    int size() {
+        return comments.size();
+    }
+
+    /**
+     * Commits the batch on top of the head revision of the given versioned ontology, updates
+     * its local history and returns the approved changes. The batch is empty afterwards.
+     */
+    ChangeHistory submit(VersionedOWLOntology vont) throws Exception {
+        Commit commit = ClientUtils.createCommit(client, String.join("\n", comments), changes.getChanges());
+        ChangeHistory approvedChanges = client.commit(projectId, new CommitBundleImpl(vont.getHeadRevision(), commit));
+        vont.update(approvedChanges);
+        comments.clear();
+        changes.clear();
+        return approvedChanges;
+    }
+}
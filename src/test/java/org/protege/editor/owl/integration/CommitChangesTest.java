@@ -26,6 +26,7 @@ import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
 import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.AddAxiom;
 import org.semanticweb.owlapi.model.IRI;
 import org.semanticweb.owlapi.model.OWLAnnotationAssertionAxiom;
 import org.semanticweb.owlapi.model.OWLAnnotationSubject;
@@ -34,7 +35,9 @@ import org.semanticweb.owlapi.model.OWLAxiom;
 import org.semanticweb.owlapi.model.OWLClass;
 import org.semanticweb.owlapi.model.OWLOntology;
 import org.semanticweb.owlapi.model.OWLOntologyChange;
+import org.semanticweb.owlapi.model.RemoveAxiom;
 
+import java.util.Arrays;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
@@ -221,6 +224,50 @@ public class CommitChangesTest extends BaseTest {
         assertThat(changeHistoryFromServer.getChangesForRevision(R2).size(), is(16));
     }
 
+    @Test
+    public void shouldCommitTrackedChanges() throws Exception {
+        VersionedOWLOntology vont = openProjectAsAdmin();
+        OWLOntology workingOntology = vont.getOntology();
+        PendingChangeLog changeLog = PendingChangeLog.attach(vont);
+
+        /*
+         * Simulates user edits over a working ontology (add axioms, one of them twice, and
+         * an axiom that is removed again)
+         */
+        owlManager.addAxiom(workingOntology, Declaration(CUSTOMER));
+        owlManager.addAxiom(workingOntology, SubClassOf(CUSTOMER, DOMAIN_CONCEPT));
+        owlManager.addAxiom(workingOntology, SubClassOf(CUSTOMER, MEAT_TOPPING));
+        owlManager.removeAxiom(workingOntology, SubClassOf(CUSTOMER, MEAT_TOPPING));
+        owlManager.removeAxiom(workingOntology, SubClassOf(CUSTOMER, DOMAIN_CONCEPT));
+        owlManager.addAxiom(workingOntology, SubClassOf(CUSTOMER, DOMAIN_CONCEPT));
+
+        /*
+         * Prepare the commit bundle from the recorded changes
+         */
+        List<OWLOntologyChange> changes = changeLog.getChanges();
+        assertThat(new HashSet<>(changes),
+                is(new HashSet<>(ClientUtils.getUncommittedChanges(vont.getOntology(), vont.getChangeHistory()))));
+        Commit commit = ClientUtils.createCommit(getAdmin(), "Add customer subclass of domain concept", changes);
+        DocumentRevision commitBaseRevision = vont.getHeadRevision();
+        CommitBundle commitBundle = new CommitBundleImpl(commitBaseRevision, commit);
+
+        /*
+         * Do commit and update local history
+         */
+        ChangeHistory approvedChanges = getAdmin().commit(projectId, commitBundle);
+        changeLog.update(approvedChanges);
+        changeLog.detach();
+
+        // Assert the committed changes
+        assertThat(changeLog.size(), is(0));
+        assertThat(vont.getChangeHistory().getHeadRevision(), is(R2));
+        assertThat(vont.getChangeHistory().getChangesForRevision(R2).size(), is(2));
+
+        ChangeHistory changeHistoryFromServer = ChangeUtils.getAllChanges(vont.getServerDocument());
+        assertThat(changeHistoryFromServer.getHeadRevision(), is(R2));
+        assertThat(changeHistoryFromServer.getChangesForRevision(R2).size(), is(2));
+    }
+
     @Test
     public void shouldNotCommitChange() throws Exception {
         VersionedOWLOntology vont = openProjectAsGuest();
@@ -250,6 +297,127 @@ public class CommitChangesTest extends BaseTest {
         guest.commit(projectId, commitBundle);
     }
 
+    @Test
+    public void shouldPassPermissionCheckBeforeCommit() throws Exception {
+        VersionedOWLOntology vont = openProjectAsAdmin();
+        OWLOntology workingOntology = vont.getOntology();
+        owlManager.addAxiom(workingOntology, Declaration(CUSTOMER));
+        owlManager.addAxiom(workingOntology, SubClassOf(CUSTOMER, DOMAIN_CONCEPT));
+        List<OWLOntologyChange> changes = ClientUtils.getUncommittedChanges(vont.getOntology(), vont.getChangeHistory());
+
+        /*
+         * Check the permission against the policy of the server, then commit
+         */
+        PolicyCache policyCache = new PolicyCache(getAdmin(), f.getUserId("root"));
+        CommitRebaser committer = new CommitRebaser(getAdmin(), projectId, vont.getServerDocument(), policyCache);
+        ChangeHistory approvedChanges = committer.commit(vont.getHeadRevision(),
+                "Add customer subclass of domain concept", changes);
+
+        assertThat(policyCache.get(projectId).getAllowedOperations().contains("add-axiom"), is(true));
+        assertThat(approvedChanges.getHeadRevision(), is(R2));
+    }
+
+    @Test
+    public void shouldRejectChangeBeforeCommit() throws Exception {
+        VersionedOWLOntology vont = openProjectAsGuest();
+        OWLOntology workingOntology = vont.getOntology();
+        owlManager.addAxiom(workingOntology, Declaration(CUSTOMER));
+        owlManager.addAxiom(workingOntology, SubClassOf(CUSTOMER, DOMAIN_CONCEPT));
+        List<OWLOntologyChange> changes = ClientUtils.getUncommittedChanges(vont.getOntology(), vont.getChangeHistory());
+
+        thrown.expect(OperationDeniedException.class);
+        thrown.expectMessage("User has no permission for 'Add axiom' operation");
+
+        /*
+         * Check the permission against the policy of the server, the commit bundle is never built
+         */
+        PolicyCache policyCache = new PolicyCache(guest, f.getUserId("guest"));
+        CommitRebaser committer = new CommitRebaser(guest, projectId, vont.getServerDocument(), policyCache);
+        committer.commit(vont.getHeadRevision(), "Add customer subclass of domain concept", changes);
+    }
+
+    @Test
+    public void shouldIndexRevisionsTouchingEntity() throws Exception {
+        VersionedOWLOntology vont = openProjectAsAdmin();
+        EntityRevisionIndex index = new EntityRevisionIndex();
+        index.update(vont.getChangeHistory());
+
+        HistoryBuilder.appendRevisions(getAdmin(), projectId, vont, CUSTOMER, 1);
+        index.update(vont.getChangeHistory());
+
+        // Assert the index after the incremental update
+        assertThat(index.getIndexedRevisions(), is(2));
+        assertThat(index.getRevisions(CUSTOMER.getIRI()), is(Arrays.asList(R2)));
+        assertThat(index.getRevisions(MEAT_TOPPING.getIRI()), is(Arrays.asList(R1)));
+        assertThat(index.getChanges(CUSTOMER.getIRI(), R2).size(), is(1));
+        assertThat(index.getChanges(MEAT_TOPPING.getIRI(), R2).isEmpty(), is(true));
+    }
+
+    @Test
+    public void shouldRebaseNonConflictingCommit() throws Exception {
+        VersionedOWLOntology vont = openProjectAsAdmin();
+        OWLOntology workingOntology = vont.getOntology();
+
+        /*
+         * Another commit moves the head to R2 while the changes are still based on R1
+         */
+        HistoryBuilder.appendRevisions(getAdmin(), projectId, vont, DOMAIN_CONCEPT, 1);
+        List<OWLOntologyChange> changes = Arrays.asList(
+                new AddAxiom(workingOntology, Declaration(CUSTOMER)),
+                new AddAxiom(workingOntology, SubClassOf(CUSTOMER, DOMAIN_CONCEPT)));
+
+        CommitRebaser rebaser = new CommitRebaser(getAdmin(), projectId, vont.getServerDocument());
+        ChangeHistory approvedChanges = rebaser.commit(R1, "Add customer subclass of domain concept", changes);
+
+        // Assert the commit was rebased onto R2
+        assertThat(rebaser.getRebaseCount(), is(1));
+        assertThat(approvedChanges.getHeadRevision(), is(R3));
+        ChangeHistory changeHistoryFromServer = ChangeUtils.getAllChanges(vont.getServerDocument());
+        assertThat(changeHistoryFromServer.getHeadRevision(), is(R3));
+        assertThat(changeHistoryFromServer.getChangesForRevision(R3).size(), is(2));
+    }
+
+    @Test
+    public void shouldRebaseIdenticalChange() throws Exception {
+        VersionedOWLOntology vont = openProjectAsAdmin();
+        OWLOntology workingOntology = vont.getOntology();
+
+        /*
+         * Another commit adds HistoryConcept1 as subclass of DomainConcept in R2
+         */
+        HistoryBuilder.appendRevisions(getAdmin(), projectId, vont, DOMAIN_CONCEPT, 1);
+        OWLClass historyConcept = Class(IRI(ONTOLOGY_ID, "HistoryConcept1"));
+        List<OWLOntologyChange> changes = Arrays.asList(
+                new AddAxiom(workingOntology, SubClassOf(historyConcept, DOMAIN_CONCEPT)));
+
+        CommitRebaser rebaser = new CommitRebaser(getAdmin(), projectId, vont.getServerDocument());
+        ChangeHistory approvedChanges = rebaser.commit(R1, "Add history concept subclass of domain concept", changes);
+
+        // Assert adding the same axiom again is not a conflict
+        assertThat(rebaser.getRebaseCount(), is(1));
+        assertThat(approvedChanges.getHeadRevision(), is(R3));
+    }
+
+    @Test
+    public void shouldNotRebaseConflictingCommit() throws Exception {
+        VersionedOWLOntology vont = openProjectAsAdmin();
+        OWLOntology workingOntology = vont.getOntology();
+
+        /*
+         * Another commit adds HistoryConcept1 as subclass of DomainConcept in R2
+         */
+        HistoryBuilder.appendRevisions(getAdmin(), projectId, vont, DOMAIN_CONCEPT, 1);
+        OWLClass historyConcept = Class(IRI(ONTOLOGY_ID, "HistoryConcept1"));
+        List<OWLOntologyChange> changes = Arrays.asList(
+                new RemoveAxiom(workingOntology, SubClassOf(historyConcept, DOMAIN_CONCEPT)));
+
+        thrown.expect(CommitConflictException.class);
+        thrown.expectMessage("The commit conflicts with revision");
+
+        CommitRebaser rebaser = new CommitRebaser(getAdmin(), projectId, vont.getServerDocument());
+        rebaser.commit(R1, "Remove history concept subclass of domain concept", changes);
+    }
+
     @After
     public void removeProject() throws Exception {
         getAdmin().deleteProject(projectId, true);
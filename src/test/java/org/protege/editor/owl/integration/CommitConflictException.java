@@ -0,0 +1,14 @@
+package org.protege.editor.owl.integration;
+
+/**
+ * Thrown when a commit on a stale base revision cannot be rebased onto the head revision
+ * because it changes the same axioms, imports or annotations as the revisions in between.
+ */
+class CommitConflictException extends Exception {
+
+    private static final long serialVersionUID = 6017480223350857441L;
+
+    CommitConflictException(String message) {
+        super(message);
+    }
+}
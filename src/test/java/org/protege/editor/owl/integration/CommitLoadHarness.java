@@ -0,0 +1,294 @@
+package org.protege.editor.owl.integration;
+
+import static org.semanticweb.owlapi.apibinding.OWLFunctionalSyntaxFactory.Class;
+import static org.semanticweb.owlapi.apibinding.OWLFunctionalSyntaxFactory.Declaration;
+import static org.semanticweb.owlapi.apibinding.OWLFunctionalSyntaxFactory.IRI;
+import static org.semanticweb.owlapi.apibinding.OWLFunctionalSyntaxFactory.SubClassOf;
+
+import org.protege.editor.owl.client.api.Client;
+import org.protege.editor.owl.client.api.exception.ClientRequestException;
+import org.protege.editor.owl.client.util.ChangeUtils;
+import org.protege.editor.owl.client.util.ClientUtils;
+import org.protege.editor.owl.server.policy.CommitBundleImpl;
+import org.protege.editor.owl.server.versioning.Commit;
+import org.protege.editor.owl.server.versioning.api.ChangeHistory;
+import org.protege.editor.owl.server.versioning.api.DocumentRevision;
+import org.protege.editor.owl.server.versioning.api.ServerDocument;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.AddAxiom;
+import org.semanticweb.owlapi.model.OWLAxiom;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyChange;
+import org.semanticweb.owlapi.model.RemoveAxiom;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import edu.stanford.protege.metaproject.api.ProjectId;
+
+/**
+ * Drives a number of authenticated clients that concurrently commit small change sets to the
+ * same project. Every client keeps a working ontology with its edits next to a copy of the
+ * project at the head it last saw, and commits the difference between the two against that
+ * head. When the server rejects a commit because its base revision is stale, the client reads
+ * the history again, applies the revisions of the other clients to both ontologies, computes
+ * the difference again and resubmits it. A rejection that leaves the head unchanged is not
+ * caused by contention and fails the run. With rebasing enabled the client instead sends the
+ * same commit again through a {@link CommitRebaser}.
+ */
+class CommitLoadHarness {
+
+    private static final int MAX_CONSECUTIVE_REJECTIONS = 1000;
+
+    private final ProjectId projectId;
+    private final OWLClass parent;
+    private final List<Client> clients;
+    private final int commitsPerClient;
+    private final boolean rebase;
+
+    private final Histogram latency = new ConcurrentHistogram(3);
+    private final AtomicInteger successfulCommits = new AtomicInteger();
+    private final AtomicInteger rejectedCommits = new AtomicInteger();
+    private final AtomicLong refreshNanos = new AtomicLong();
+
+    /**
+     * @param projectId
+     *          The target project
+     * @param parent
+     *          The class under which every client adds its new concepts
+     * @param clients
+     *          The logged-in clients, one worker thread per client
+     * @param commitsPerClient
+     *          The number of successful commits each client makes
+     * @param rebase
+     *          Whether a rejected commit is rebased onto the head revision instead of recomputed
+     */
+    CommitLoadHarness(ProjectId projectId, OWLClass parent, List<Client> clients, int commitsPerClient,
+            boolean rebase) {
+        this.projectId = projectId;
+        this.parent = parent;
+        this.clients = clients;
+        this.commitsPerClient = commitsPerClient;
+        this.rebase = rebase;
+    }
+
+    CommitLoadHarness(ProjectId projectId, OWLClass parent, List<Client> clients, int commitsPerClient) {
+        this(projectId, parent, clients, commitsPerClient, false);
+    }
+
+    Result run() throws Exception {
+        final CountDownLatch startSignal = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(clients.size());
+        try {
+            List<Future<Void>> workers = new ArrayList<>();
+            for (int i = 0; i < clients.size(); i++) {
+                workers.add(executor.submit(new Worker(clients.get(i), "Client" + i, startSignal)));
+            }
+            long start = System.nanoTime();
+            startSignal.countDown();
+            for (Future<Void> worker : workers) {
+                worker.get();
+            }
+            long elapsed = System.nanoTime() - start;
+            return new Result(successfulCommits.get(), rejectedCommits.get(), elapsed, refreshNanos.get(), latency);
+        }
+        finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private class Worker implements Callable<Void> {
+
+        private final Client client;
+        private final String name;
+        private final CountDownLatch startSignal;
+
+        private ServerDocument serverDocument;
+        private OWLOntology headOntology; // the project at the base revision
+        private OWLOntology workingOntology; // the project at the base revision with the edits of this worker
+        private int baseRevisions;
+        private DocumentRevision base;
+
+        Worker(Client client, String name, CountDownLatch startSignal) {
+            this.client = client;
+            this.name = name;
+            this.startSignal = startSignal;
+        }
+
+        @Override
+        public Void call() throws Exception {
+            serverDocument = client.openProject(projectId);
+            // Separate managers, since both ontologies get the same ontology ID
+            headOntology = OWLManager.createOWLOntologyManager().createOntology();
+            workingOntology = OWLManager.createOWLOntologyManager().createOntology();
+            base = DocumentRevision.START_REVISION;
+            refresh(ChangeUtils.getAllChanges(serverDocument));
+            CommitRebaser rebaser = new CommitRebaser(client, projectId, serverDocument);
+            startSignal.await();
+            int consecutiveRejections = 0;
+            for (int committed = 0; committed < commitsPerClient; ) {
+                String concept = name + "Concept" + committed;
+                if (!workingOntology.containsClassInSignature(IRI(parent.getIRI().getNamespace(), concept))) {
+                    workingOntology.getOWLOntologyManager().applyChanges(newConcept(workingOntology, concept));
+                }
+                String comment = name + " commit " + committed;
+                List<OWLOntologyChange> changes = getUncommittedChanges();
+                long start = System.nanoTime();
+                if (rebase) {
+                    ChangeHistory approvedChanges = rebaser.commit(base, comment, changes);
+                    latency.recordValue(System.nanoTime() - start);
+                    approve(approvedChanges, changes);
+                    committed++;
+                    continue;
+                }
+                Commit commit = ClientUtils.createCommit(client, comment, changes);
+                try {
+                    ChangeHistory approvedChanges = client.commit(projectId, new CommitBundleImpl(base, commit));
+                    latency.recordValue(System.nanoTime() - start);
+                    approve(approvedChanges, changes);
+                    committed++;
+                    consecutiveRejections = 0;
+                }
+                catch (ClientRequestException e) {
+                    long refreshStart = System.nanoTime();
+                    ChangeHistory changeHistory = ChangeUtils.getAllChanges(serverDocument);
+                    refreshNanos.addAndGet(System.nanoTime() - refreshStart);
+                    if (changeHistory.getHeadRevision().equals(base)
+                            || ++consecutiveRejections > MAX_CONSECUTIVE_REJECTIONS) {
+                        throw e; // not caused by a stale base revision
+                    }
+                    rejectedCommits.incrementAndGet();
+                    refresh(changeHistory);
+                }
+            }
+            rejectedCommits.addAndGet(rebaser.getRebaseCount());
+            return null;
+        }
+
+        /*
+         * Returns the edits of this worker that are not in the head ontology, i.e., the diff a
+         * client computes before it commits
+         */
+        private List<OWLOntologyChange> getUncommittedChanges() {
+            List<OWLOntologyChange> changes = new ArrayList<>();
+            for (OWLAxiom axiom : workingOntology.getAxioms()) {
+                if (!headOntology.containsAxiom(axiom)) {
+                    changes.add(new AddAxiom(workingOntology, axiom));
+                }
+            }
+            for (OWLAxiom axiom : headOntology.getAxioms()) {
+                if (!workingOntology.containsAxiom(axiom)) {
+                    changes.add(new RemoveAxiom(workingOntology, axiom));
+                }
+            }
+            return changes;
+        }
+
+        /*
+         * Applies the revisions after the base revision to both ontologies and moves the base
+         * revision to the head of the given history
+         */
+        private void refresh(ChangeHistory changeHistory) {
+            int revisions = 0;
+            for (DocumentRevision revision : changeHistory.getRevisions()) {
+                if (++revisions > baseRevisions) {
+                    List<OWLOntologyChange> changes = changeHistory.getChangesForRevision(revision);
+                    apply(changes, headOntology);
+                    apply(changes, workingOntology);
+                }
+            }
+            baseRevisions = revisions;
+            base = changeHistory.getHeadRevision();
+        }
+
+        /*
+         * Records an approved commit of this worker and applies it to the head ontology. A
+         * rebased commit also moves the base revision over the revisions of the other workers,
+         * which are not applied; they do not touch the concepts of this worker, and the rebasing
+         * mode never refreshes.
+         */
+        private void approve(ChangeHistory approvedChanges, List<OWLOntologyChange> changes) {
+            successfulCommits.incrementAndGet();
+            apply(changes, headOntology);
+            baseRevisions++;
+            base = approvedChanges.getHeadRevision();
+        }
+
+        private void apply(List<OWLOntologyChange> changes, OWLOntology ontology) {
+            List<OWLOntologyChange> boundChanges = new ArrayList<>(changes.size());
+            for (OWLOntologyChange change : changes) {
+                boundChanges.add(change.getChangeData().createOntologyChange(ontology));
+            }
+            ontology.getOWLOntologyManager().applyChanges(boundChanges);
+        }
+    }
+
+    private List<OWLOntologyChange> newConcept(OWLOntology ontology, String name) {
+        OWLClass concept = Class(IRI(parent.getIRI().getNamespace(), name));
+        List<OWLOntologyChange> changes = new ArrayList<>();
+        changes.add(new AddAxiom(ontology, Declaration(concept)));
+        changes.add(new AddAxiom(ontology, SubClassOf(concept, parent)));
+        return changes;
+    }
+
+    static class Result {
+
+        private final int successfulCommits;
+        private final int rejectedCommits;
+        private final long elapsedNanos;
+        private final long refreshNanos;
+        private final Histogram latency;
+
+        Result(int successfulCommits, int rejectedCommits, long elapsedNanos, long refreshNanos, Histogram latency) {
+            this.successfulCommits = successfulCommits;
+            this.rejectedCommits = rejectedCommits;
+            this.elapsedNanos = elapsedNanos;
+            this.refreshNanos = refreshNanos;
+            this.latency = latency;
+        }
+
+        int getSuccessfulCommits() {
+            return successfulCommits;
+        }
+
+        int getRejectedCommits() {
+            return rejectedCommits;
+        }
+
+        double getCommitsPerSecond() {
+            return successfulCommits / (elapsedNanos / 1e9);
+        }
+
+        double getRejectionRate() {
+            int attempts = successfulCommits + rejectedCommits;
+            return attempts == 0 ? 0 : (double) rejectedCommits / attempts;
+        }
+
+        /**
+         * Returns the mean time in nanoseconds a client spent re-reading the project history
+         * after a rejection to learn the revisions of the other clients. The full history is downloaded
+         * each time, so this cost is part of the throughput and not of the commit latency.
+         */
+        long getMeanRefreshTime() {
+            return rejectedCommits == 0 ? 0 : refreshNanos / rejectedCommits;
+        }
+
+        /**
+         * Returns the commit latency in nanoseconds at the given percentile, e.g., 99.9.
+         */
+        long getLatencyAtPercentile(double percentile) {
+            return latency.getValueAtPercentile(percentile);
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package org.protege.editor.owl.integration;
+
+import static org.semanticweb.owlapi.apibinding.OWLFunctionalSyntaxFactory.Class;
+import static org.semanticweb.owlapi.apibinding.OWLFunctionalSyntaxFactory.Declaration;
+import static org.semanticweb.owlapi.apibinding.OWLFunctionalSyntaxFactory.IRI;
+import static org.semanticweb.owlapi.apibinding.OWLFunctionalSyntaxFactory.SubClassOf;
+
+import org.protege.editor.owl.client.api.Client;
+import org.protege.editor.owl.client.util.ClientUtils;
+import org.protege.editor.owl.server.api.CommitBundle;
+import org.protege.editor.owl.server.policy.CommitBundleImpl;
+import org.protege.editor.owl.server.versioning.Commit;
+import org.protege.editor.owl.server.versioning.api.VersionedOWLOntology;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyChange;
+import org.semanticweb.owlapi.model.OWLOntologyManager;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import edu.stanford.protege.metaproject.api.ProjectId;
+
+/**
+ * Compares the two ways of collecting the changes of a two-axiom edit before a commit:
+ * diffing the working ontology against its history with
+ * {@link ClientUtils#getUncommittedChanges(OWLOntology, org.protege.editor.owl.server.versioning.api.ChangeHistory)}
+ * and reading the {@link PendingChangeLog}. The ontology grows from 1k to 1M axioms while
+ * the edit stays the same.
+ * <p>
+ * The benchmark expects a running server at {@link BaseTest#SERVER_ADDRESS}. Run it with
+ * <code>mvn verify -Pbenchmark -Dbenchmark.includes=CommitPreparationBenchmark</code>.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CommitPreparationBenchmark {
+
+    @Param({"1000", "10000", "100000", "1000000"})
+    public int numberOfAxioms;
+
+    private Client admin;
+    private ProjectId projectId;
+    private VersionedOWLOntology vont;
+    private PendingChangeLog changeLog;
+
+    @Setup(Level.Trial)
+    public void openProjectWithEdits() throws Exception {
+        admin = BaseTest.login(BaseTest.f.getUserId("root"), BaseTest.f.getPlainPassword("rootpwd"));
+        projectId = BaseTest.f.getProjectId("synthetic-" + numberOfAxioms + "-" + System.currentTimeMillis());
+        OWLOntology ontology = SyntheticPizzaOntology.generate(OWLManager.createOWLOntologyManager(), numberOfAxioms);
+        List<OWLOntologyChange> changes = ClientUtils.getUncommittedChanges(ontology);
+        Commit initialCommit = ClientUtils.createCommit(admin, "First commit", changes);
+        CommitBundle commitBundle = new CommitBundleImpl(BaseTest.R0, initialCommit);
+        admin.createProject(projectId,
+                BaseTest.f.getName("Synthetic Pizza Project"),
+                BaseTest.f.getDescription("Commit preparation benchmark"),
+                BaseTest.f.getUserId("root"),
+                Optional.empty(), Optional.of(commitBundle));
+
+        OWLOntologyManager owlManager = OWLManager.createOWLOntologyManager();
+        vont = ClientUtils.buildVersionedOntology(admin.openProject(projectId), owlManager);
+        changeLog = PendingChangeLog.attach(vont);
+
+        String ns = SyntheticPizzaOntology.ONTOLOGY_ID + "#";
+        OWLClass customer = Class(IRI(ns, "Customer"));
+        owlManager.addAxiom(vont.getOntology(), Declaration(customer));
+        owlManager.addAxiom(vont.getOntology(), SubClassOf(customer, Class(IRI(ns, "DomainConcept"))));
+    }
+
+    @Benchmark
+    public List<OWLOntologyChange> diffAgainstHistory() throws Exception {
+        return ClientUtils.getUncommittedChanges(vont.getOntology(), vont.getChangeHistory());
+    }
+
+    @Benchmark
+    public List<OWLOntologyChange> readPendingChangeLog() {
+        return changeLog.getChanges();
+    }
+
+    @TearDown(Level.Trial)
+    public void removeProject() throws Exception {
+        changeLog.detach();
+        admin.deleteProject(projectId, true);
+    }
+}
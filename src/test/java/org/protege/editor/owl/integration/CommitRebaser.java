@@ -0,0 +1,126 @@
+package org.protege.editor.owl.integration;
+
+import org.protege.editor.owl.client.api.Client;
+import org.protege.editor.owl.client.api.exception.ClientRequestException;
+import org.protege.editor.owl.client.util.ChangeUtils;
+import org.protege.editor.owl.client.util.ClientUtils;
+import org.protege.editor.owl.server.api.exception.OperationNotAllowedException;
+import org.protege.editor.owl.server.policy.CommitBundleImpl;
+import org.protege.editor.owl.server.versioning.Commit;
+import org.protege.editor.owl.server.versioning.api.ChangeHistory;
+import org.protege.editor.owl.server.versioning.api.DocumentRevision;
+import org.protege.editor.owl.server.versioning.api.ServerDocument;
+
+import org.semanticweb.owlapi.change.OWLOntologyChangeData;
+import org.semanticweb.owlapi.model.OWLOntologyChange;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import edu.stanford.protege.metaproject.api.ProjectId;
+
+/**
+ * Commits changes and, when the server rejects them because their base revision is behind
+ * the head, rebases the same commit onto the head and sends it again, as long as none of the
+ * revisions in between changes an item the commit changes (see {@link NetChangeSet}) in a
+ * different way. A revision that makes the very same change, e.g., adds the same axiom, does
+ * not conflict since applying the change again has no effect. The commit is created once and
+ * is not recomputed against the new head.
+ * <p>
+ * Given a {@link PolicyCache}, the rebaser checks the changes against the policy of the user
+ * before it creates the commit, and invalidates the cached policy when the server still
+ * denies the operation.
+ */
+final class CommitRebaser {
+
+    private static final int MAX_REBASES = 1000;
+
+    private final Client client;
+    private final ProjectId projectId;
+    private final ServerDocument serverDocument;
+    private final PolicyCache policyCache;
+
+    private int rebaseCount = 0;
+
+    CommitRebaser(Client client, ProjectId projectId, ServerDocument serverDocument, PolicyCache policyCache) {
+        this.client = client;
+        this.projectId = projectId;
+        this.serverDocument = serverDocument;
+        this.policyCache = policyCache;
+    }
+
+    CommitRebaser(Client client, ProjectId projectId, ServerDocument serverDocument) {
+        this(client, projectId, serverDocument, null);
+    }
+
+    /**
+     * Commits the changes on top of the given base revision, rebasing them onto the head
+     * revision if necessary, and returns the approved changes.
+     *
+     * @throws OperationDeniedException
+     *          If the policy of the user does not allow one of the changes
+     * @throws CommitConflictException
+     *          If the changes overlap with a revision committed after the base revision
+     */
+    ChangeHistory commit(DocumentRevision base, String comment, List<OWLOntologyChange> changes) throws Exception {
+        if (policyCache != null) {
+            policyCache.get(projectId).checkPermission(changes);
+        }
+        Commit commit = ClientUtils.createCommit(client, comment, changes);
+        Map<Object, OWLOntologyChangeData> changedItems = getChangedItems(changes);
+        for (int rebases = 0; ; rebases++) {
+            try {
+                return client.commit(projectId, new CommitBundleImpl(base, commit));
+            }
+            catch (ClientRequestException e) {
+                if (policyCache != null && e.getCause() instanceof OperationNotAllowedException) {
+                    policyCache.invalidate();
+                    throw e;
+                }
+                ChangeHistory changeHistory = ChangeUtils.getAllChanges(serverDocument);
+                DocumentRevision head = changeHistory.getHeadRevision();
+                if (head.equals(base) || rebases >= MAX_REBASES) {
+                    throw e; // not caused by a stale base revision
+                }
+                checkNoOverlap(changedItems, changeHistory, base);
+                base = head;
+                synchronized (this) {
+                    rebaseCount++;
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the number of times a commit was sent again on a newer head revision.
+     */
+    synchronized int getRebaseCount() {
+        return rebaseCount;
+    }
+
+    private static void checkNoOverlap(Map<Object, OWLOntologyChangeData> changedItems, ChangeHistory changeHistory,
+            DocumentRevision base) throws CommitConflictException {
+        for (int i = changeHistory.getRevisions().size(); i >= 1; i--) {
+            DocumentRevision revision = DocumentRevision.create(i);
+            if (revision.equals(base)) {
+                break;
+            }
+            for (OWLOntologyChange change : changeHistory.getChangesForRevision(revision)) {
+                OWLOntologyChangeData ownChange = changedItems.get(NetChangeSet.getChangedItem(change));
+                if (ownChange != null && !ownChange.equals(change.getChangeData())) {
+                    throw new CommitConflictException("The commit conflicts with revision " + revision
+                            + " on " + change);
+                }
+            }
+        }
+    }
+
+    private static Map<Object, OWLOntologyChangeData> getChangedItems(List<OWLOntologyChange> changes) {
+        Map<Object, OWLOntologyChangeData> items = new HashMap<>();
+        for (OWLOntologyChange change : changes) {
+            items.put(NetChangeSet.getChangedItem(change), change.getChangeData());
+        }
+        return items;
+    }
+}
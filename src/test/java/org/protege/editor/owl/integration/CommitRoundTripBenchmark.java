@@ -0,0 +1,223 @@
+package org.protege.editor.owl.integration;
+
+import static org.semanticweb.owlapi.apibinding.OWLFunctionalSyntaxFactory.Class;
+import static org.semanticweb.owlapi.apibinding.OWLFunctionalSyntaxFactory.Declaration;
+import static org.semanticweb.owlapi.apibinding.OWLFunctionalSyntaxFactory.IRI;
+import static org.semanticweb.owlapi.apibinding.OWLFunctionalSyntaxFactory.SubClassOf;
+
+import org.protege.editor.owl.client.api.Client;
+import org.protege.editor.owl.client.util.ClientUtils;
+import org.protege.editor.owl.server.api.CommitBundle;
+import org.protege.editor.owl.server.policy.CommitBundleImpl;
+import org.protege.editor.owl.server.versioning.Commit;
+import org.protege.editor.owl.server.versioning.api.ChangeHistory;
+import org.protege.editor.owl.server.versioning.api.VersionedOWLOntology;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.OWLAxiom;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyChange;
+import org.semanticweb.owlapi.model.OWLOntologyManager;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import edu.stanford.protege.metaproject.api.ProjectId;
+
+/**
+ * Measures each stage of the commit round-trip exercised by {@link CommitChangesTest}, i.e.,
+ * computing the uncommitted changes, creating the commit, sending it to the server and
+ * updating the local history. The benchmark sweeps the commit size and the history depth
+ * of the project.
+ * <p>
+ * The committing benchmarks grow the project they measure, so the project is created afresh
+ * for every iteration. Within an iteration the history deepens by one revision per
+ * invocation, but every iteration starts from the same state.
+ * <p>
+ * The benchmark expects a running server at {@link BaseTest#SERVER_ADDRESS}. Run it with
+ * <code>mvn verify -Pbenchmark</code>.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class CommitRoundTripBenchmark {
+
+    private static final String ONTOLOGY_ID = BaseTest.PizzaOntology.getId() + "#";
+
+    private static final OWLClass DOMAIN_CONCEPT = Class(IRI(ONTOLOGY_ID, "DomainConcept"));
+
+    /**
+     * A pizza project on the server whose history has at least <code>historyDepth</code>
+     * revisions, opened by the admin user and recreated for every iteration.
+     */
+    @State(Scope.Benchmark)
+    public static class ProjectState {
+
+        /**
+         * The number of changes in a commit. 945 is the size of the pizza initial commit.
+         */
+        @Param({"2", "945", "100000"})
+        public int commitSize;
+
+        /**
+         * The number of revisions in the project history before the measurement starts.
+         */
+        @Param({"1", "100", "1000"})
+        public int historyDepth;
+
+        private Client admin;
+        private ProjectId projectId;
+        private OWLOntologyManager owlManager;
+        private VersionedOWLOntology vont;
+
+        private int conceptCounter;
+
+        @Setup(Level.Trial)
+        public void login() throws Exception {
+            admin = BaseTest.login(BaseTest.f.getUserId("root"), BaseTest.f.getPlainPassword("rootpwd"));
+        }
+
+        @Setup(Level.Iteration)
+        public void createProject() throws Exception {
+            conceptCounter = 0;
+            projectId = BaseTest.f.getProjectId("pizza-" + System.currentTimeMillis()); // currentTimeMilis() for uniqueness
+            OWLOntology ontology = OWLManager.createOWLOntologyManager()
+                    .loadOntologyFromOntologyDocument(BaseTest.PizzaOntology.getResource());
+            List<OWLOntologyChange> changes = ClientUtils.getUncommittedChanges(ontology);
+            Commit initialCommit = ClientUtils.createCommit(admin, "First commit", changes);
+            CommitBundle commitBundle = new CommitBundleImpl(BaseTest.R0, initialCommit);
+            admin.createProject(projectId,
+                    BaseTest.f.getName("Pizza Project"),
+                    BaseTest.f.getDescription("Commit round-trip benchmark"),
+                    BaseTest.f.getUserId("root"),
+                    Optional.empty(), Optional.of(commitBundle));
+
+            owlManager = OWLManager.createOWLOntologyManager();
+            vont = ClientUtils.buildVersionedOntology(admin.openProject(projectId), owlManager);
+            while (vont.getChangeHistory().getRevisions().size() < historyDepth) {
+                addNewConcepts(2);
+                vont.update(admin.commit(projectId, prepareCommitBundle()));
+            }
+        }
+
+        /*
+         * Simulates user edits by adding fresh concepts, each declared and placed under DomainConcept.
+         */
+        void addNewConcepts(int numberOfAxioms) {
+            Set<OWLAxiom> axioms = new HashSet<>();
+            while (axioms.size() < numberOfAxioms) {
+                OWLClass concept = Class(IRI(ONTOLOGY_ID, "SyntheticConcept" + conceptCounter++));
+                axioms.add(Declaration(concept));
+                if (axioms.size() < numberOfAxioms) {
+                    axioms.add(SubClassOf(concept, DOMAIN_CONCEPT));
+                }
+            }
+            owlManager.addAxioms(vont.getOntology(), axioms);
+        }
+
+        CommitBundle prepareCommitBundle() throws Exception {
+            List<OWLOntologyChange> changes = ClientUtils.getUncommittedChanges(vont.getOntology(), vont.getChangeHistory());
+            Commit commit = ClientUtils.createCommit(admin, "Benchmark commit", changes);
+            return new CommitBundleImpl(vont.getHeadRevision(), commit);
+        }
+
+        @TearDown(Level.Iteration)
+        public void removeProject() throws Exception {
+            admin.deleteProject(projectId, true);
+        }
+    }
+
+    /**
+     * Uncommitted edits of <code>commitSize</code> axioms on top of the project head.
+     */
+    @State(Scope.Benchmark)
+    public static class PendingChangesState {
+
+        private List<OWLOntologyChange> changes;
+
+        @Setup(Level.Iteration)
+        public void applyEdits(ProjectState project) throws Exception {
+            project.addNewConcepts(project.commitSize);
+            changes = ClientUtils.getUncommittedChanges(project.vont.getOntology(), project.vont.getChangeHistory());
+        }
+    }
+
+    /**
+     * A fresh commit bundle for every invocation. The local history follows the server head
+     * after each commit so that the next bundle is never based on a stale revision.
+     */
+    @State(Scope.Benchmark)
+    public static class CommitState {
+
+        private CommitBundle commitBundle;
+        private ChangeHistory approvedChanges;
+
+        @Setup(Level.Invocation)
+        public void prepareCommit(ProjectState project) throws Exception {
+            project.addNewConcepts(project.commitSize);
+            commitBundle = project.prepareCommitBundle();
+        }
+
+        @TearDown(Level.Invocation)
+        public void updateLocalHistory(ProjectState project) throws Exception {
+            project.vont.update(approvedChanges);
+        }
+    }
+
+    /**
+     * Changes approved by the server but not yet applied to the local history.
+     */
+    @State(Scope.Benchmark)
+    public static class ApprovedChangesState {
+
+        private ChangeHistory approvedChanges;
+
+        @Setup(Level.Invocation)
+        public void doCommit(ProjectState project) throws Exception {
+            project.addNewConcepts(project.commitSize);
+            approvedChanges = project.admin.commit(project.projectId, project.prepareCommitBundle());
+        }
+    }
+
+    @Benchmark
+    public List<OWLOntologyChange> getUncommittedChanges(ProjectState project, PendingChangesState pending)
+            throws Exception {
+        return ClientUtils.getUncommittedChanges(project.vont.getOntology(), project.vont.getChangeHistory());
+    }
+
+    @Benchmark
+    public Commit createCommit(ProjectState project, PendingChangesState pending) throws Exception {
+        return ClientUtils.createCommit(project.admin, "Benchmark commit", pending.changes);
+    }
+
+    @Benchmark
+    public ChangeHistory commit(ProjectState project, CommitState state) throws Exception {
+        state.approvedChanges = project.admin.commit(project.projectId, state.commitBundle);
+        return state.approvedChanges;
+    }
+
+    @Benchmark
+    public VersionedOWLOntology update(ProjectState project, ApprovedChangesState state) throws Exception {
+        project.vont.update(state.approvedChanges);
+        return project.vont;
+    }
+}
@@ -0,0 +1,157 @@
+package org.protege.editor.owl.integration;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+
+import org.protege.editor.owl.client.util.ChangeUtils;
+import org.protege.editor.owl.client.util.ClientUtils;
+import org.protege.editor.owl.server.api.CommitBundle;
+import org.protege.editor.owl.server.policy.CommitBundleImpl;
+import org.protege.editor.owl.server.versioning.Commit;
+import org.protege.editor.owl.server.versioning.api.ChangeHistory;
+import org.protege.editor.owl.server.versioning.api.ServerDocument;
+
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Test;
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.OWLOntologyChange;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.Optional;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+import edu.stanford.protege.metaproject.api.ProjectId;
+
+/**
+ * Compares the payloads of opening a new project as RMI sends them, i.e., Java-serialized,
+ * with the same payloads deflated, for the pizza initial commit and for a large synthetic
+ * commit. Both the uploaded commit bundle and the change history downloaded afterwards are
+ * measured. For each payload and encoding the test reports the serialized and compressed
+ * size, the time to encode and decode it, and a modeled transfer time: the encode and decode
+ * time plus the time the bytes take on a link of the given bandwidth. The measured
+ * createProject latency on the local connection is reported next to it.
+ * <p>
+ * The compression is applied to the payloads in the test only. The server exports its
+ * services with the default RMI socket factories and the client cannot choose others, so
+ * nothing goes over the wire compressed and the modeled transfer times are an estimate of
+ * what an opt-in compressing socket factory on both ends would gain.
+ * <p>
+ * The bandwidth can be set with <code>-Dlink.mbps=10</code> and the size of the synthetic
+ * ontology with <code>-Dcompression.axioms=1000000</code>.
+ */
+public class CompressedTransportIT extends BaseTest {
+
+    private static final double LINK_MBPS = Double.parseDouble(System.getProperty("link.mbps", "10"));
+    private static final int NUMBER_OF_AXIOMS = Integer.getInteger("compression.axioms", 1000000);
+
+    private static final PerformanceReport report = new PerformanceReport("compressed-transport");
+
+    private ProjectId projectId;
+
+    @Test
+    public void shouldCompressPizzaInitialCommit() throws Exception {
+        measureTransport("pizza", PizzaOntology.getInitialChanges());
+    }
+
+    @Test
+    public void shouldCompressLargeInitialCommit() throws Exception {
+        List<OWLOntologyChange> changes = ClientUtils.getUncommittedChanges(
+                SyntheticPizzaOntology.generate(OWLManager.createOWLOntologyManager(), NUMBER_OF_AXIOMS));
+        measureTransport(NUMBER_OF_AXIOMS + " axioms", changes);
+    }
+
+    private void measureTransport(String scenario, List<OWLOntologyChange> changes) throws Exception {
+        projectId = f.getProjectId("compression-" + System.currentTimeMillis()); // currentTimeMilis() for uniqueness
+        Commit initialCommit = ClientUtils.createCommit(getAdmin(), "First commit", changes);
+        CommitBundle commitBundle = new CommitBundleImpl(R0, initialCommit);
+        measureEncoding(scenario, "commitBundle", commitBundle, CommitBundle.class);
+
+        long start = System.nanoTime();
+        ServerDocument serverDocument = getAdmin().createProject(projectId, f.getName("Compression Project"),
+                f.getDescription(scenario), f.getUserId("root"), Optional.empty(), Optional.of(commitBundle));
+        long createProject = System.nanoTime() - start;
+        report.record(scenario, "createProjectLocal", PerformanceReport.millis(createProject), "ms");
+
+        ChangeHistory changeHistory = ChangeUtils.getAllChanges(serverDocument);
+        measureEncoding(scenario, "history", changeHistory, ChangeHistory.class);
+    }
+
+    private void measureEncoding(String scenario, String payload, Object object, Class<?> type) throws Exception {
+        long start = System.nanoTime();
+        byte[] serialized = encode(object, false);
+        long serializedEncode = System.nanoTime() - start;
+        start = System.nanoTime();
+        Object serializedDecoded = decode(serialized, false);
+        long serializedDecode = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        byte[] compressed = encode(object, true);
+        long compressedEncode = System.nanoTime() - start;
+        start = System.nanoTime();
+        Object compressedDecoded = decode(compressed, true);
+        long compressedDecode = System.nanoTime() - start;
+
+        double serializedCodec = PerformanceReport.millis(serializedEncode + serializedDecode);
+        double compressedCodec = PerformanceReport.millis(compressedEncode + compressedDecode);
+        report.record(scenario, payload + "SerializedSize", serialized.length, "bytes");
+        report.record(scenario, payload + "CompressedSize", compressed.length, "bytes");
+        report.record(scenario, payload + "CompressionRatio", (double) serialized.length / compressed.length, "x");
+        report.record(scenario, payload + "SerializedEncodeDecode", serializedCodec, "ms");
+        report.record(scenario, payload + "CompressedEncodeDecode", compressedCodec, "ms");
+        report.record(scenario, payload + "ModeledSerializedTransfer@" + LINK_MBPS + "Mbps",
+                serializedCodec + transferMillis(serialized.length), "ms");
+        report.record(scenario, payload + "ModeledCompressedTransfer@" + LINK_MBPS + "Mbps",
+                compressedCodec + transferMillis(compressed.length), "ms");
+
+        // Assert both encodings carry the payload and compressing pays off
+        assertThat(serializedDecoded, is(instanceOf(type)));
+        assertThat(compressedDecoded, is(instanceOf(type)));
+        assertThat(compressed.length, is(lessThan(serialized.length)));
+    }
+
+    private static double transferMillis(long bytes) {
+        return bytes * 8 / (LINK_MBPS * 1e6) * 1e3;
+    }
+
+    private static byte[] encode(Object object, boolean deflate) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try (OutputStream sink = deflate ? new DeflaterOutputStream(bytes, deflater) : bytes;
+                ObjectOutputStream out = new ObjectOutputStream(sink)) {
+            out.writeObject(object);
+        }
+        finally {
+            deflater.end();
+        }
+        return bytes.toByteArray();
+    }
+
+    private static Object decode(byte[] bytes, boolean inflate) throws IOException, ClassNotFoundException {
+        InputStream source = new ByteArrayInputStream(bytes);
+        try (ObjectInputStream in = new ObjectInputStream(inflate ? new InflaterInputStream(source) : source)) {
+            return in.readObject();
+        }
+    }
+
+    @After
+    public void removeProject() throws Exception {
+        getAdmin().deleteProject(projectId, true);
+    }
+
+    @AfterClass
+    public static void writeReport() throws Exception {
+        report.write();
+    }
+}
@@ -0,0 +1,119 @@
+package org.protege.editor.owl.integration;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.semanticweb.owlapi.apibinding.OWLFunctionalSyntaxFactory.Class;
+import static org.semanticweb.owlapi.apibinding.OWLFunctionalSyntaxFactory.IRI;
+
+import org.protege.editor.owl.client.api.Client;
+import org.protege.editor.owl.client.util.ChangeUtils;
+import org.protege.editor.owl.client.util.ClientUtils;
+import org.protege.editor.owl.server.api.CommitBundle;
+import org.protege.editor.owl.server.policy.CommitBundleImpl;
+import org.protege.editor.owl.server.versioning.Commit;
+import org.protege.editor.owl.server.versioning.api.ChangeHistory;
+import org.protege.editor.owl.server.versioning.api.DocumentRevision;
+import org.protege.editor.owl.server.versioning.api.ServerDocument;
+
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameter;
+import org.junit.runners.Parameterized.Parameters;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLOntologyChange;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+import edu.stanford.protege.metaproject.api.ProjectId;
+
+/**
+ * Runs {@link CommitLoadHarness} with an increasing number of concurrent writers against a
+ * single pizza project and reports the commit throughput, the commit latency percentiles and
+ * the rate of commits rejected because of a stale base revision. Afterwards the server history
+ * must contain exactly one revision per successful commit.
+ * <p>
+ * The sweep can be overridden with <code>-Dload.clients=1,8,32</code> and the number of
+ * commits per client with <code>-Dload.commits=20</code>.
+ */
+@RunWith(Parameterized.class)
+public class ConcurrentCommitLoadIT extends BaseTest {
+
+    private static final OWLClass DOMAIN_CONCEPT = Class(IRI(PizzaOntology.getId() + "#", "DomainConcept"));
+
+    private static final int COMMITS_PER_CLIENT = Integer.getInteger("load.commits", 20);
+
+    private static final PerformanceReport report = new PerformanceReport("concurrent-commit-load");
+
+    @Parameters(name = "{0} clients")
+    public static Collection<Object[]> clients() {
+        List<Object[]> parameters = new ArrayList<>();
+        for (String clients : System.getProperty("load.clients", "1,4,16,64,256").split(",")) {
+            parameters.add(new Object[] { Integer.valueOf(clients.trim()) });
+        }
+        return parameters;
+    }
+
+    @Parameter
+    public int numberOfClients;
+
+    private ProjectId projectId;
+
+    @Before
+    public void createProject() throws Exception {
+        projectId = f.getProjectId("pizza-" + System.currentTimeMillis()); // currentTimeMilis() for uniqueness
+        List<OWLOntologyChange> changes = PizzaOntology.getInitialChanges();
+        Commit initialCommit = ClientUtils.createCommit(getAdmin(), "First commit", changes);
+        CommitBundle commitBundle = new CommitBundleImpl(R0, initialCommit);
+        getAdmin().createProject(projectId, f.getName("Pizza Project"), f.getDescription("Concurrent commit load"),
+                f.getUserId("root"), Optional.empty(), Optional.of(commitBundle));
+    }
+
+    @Test
+    public void shouldKeepHistoryConsistentUnderConcurrentCommits() throws Exception {
+        List<Client> clients = new ArrayList<>();
+        for (int i = 0; i < numberOfClients; i++) {
+            clients.add(login(f.getUserId("root"), f.getPlainPassword("rootpwd")));
+        }
+        ServerDocument serverDocument = getAdmin().openProject(projectId);
+
+        CommitLoadHarness harness = new CommitLoadHarness(projectId, DOMAIN_CONCEPT,
+                clients, COMMITS_PER_CLIENT);
+        CommitLoadHarness.Result result = harness.run();
+
+        String scenario = numberOfClients + " clients";
+        report.record(scenario, "throughput", result.getCommitsPerSecond(), "commits/s");
+        report.record(scenario, "p50", PerformanceReport.millis(result.getLatencyAtPercentile(50)), "ms");
+        report.record(scenario, "p99", PerformanceReport.millis(result.getLatencyAtPercentile(99)), "ms");
+        report.record(scenario, "p999", PerformanceReport.millis(result.getLatencyAtPercentile(99.9)), "ms");
+        report.record(scenario, "staleBaseRejections", result.getRejectionRate() * 100, "%");
+        report.record(scenario, "historyRefresh", PerformanceReport.millis(result.getMeanRefreshTime()), "ms/rejection");
+
+        // Assert the final history has one revision per successful commit
+        int successfulCommits = result.getSuccessfulCommits();
+        assertThat(successfulCommits, is(numberOfClients * COMMITS_PER_CLIENT));
+        ChangeHistory changeHistoryFromServer = ChangeUtils.getAllChanges(serverDocument);
+        assertThat(changeHistoryFromServer.getHeadRevision(), is(DocumentRevision.create(1 + successfulCommits)));
+        assertThat(changeHistoryFromServer.getRevisions().size(), is(1 + successfulCommits));
+        assertThat(changeHistoryFromServer.getChangesForRevision(R1).size(), is(945));
+        for (int i = 2; i <= 1 + successfulCommits; i++) {
+            assertThat(changeHistoryFromServer.getChangesForRevision(DocumentRevision.create(i)).size(), is(2));
+        }
+    }
+
+    @After
+    public void removeProject() throws Exception {
+        getAdmin().deleteProject(projectId, true);
+    }
+
+    @AfterClass
+    public static void writeReport() throws Exception {
+        report.write();
+    }
+}
@@ -0,0 +1,25 @@
+package org.protege.editor.owl.integration;
+
+import java.io.OutputStream;
+
+/**
+ * An output stream that discards its input and only counts the bytes written to it.
+ */
+class CountingOutputStream extends OutputStream {
+
+    private long count = 0;
+
+    @Override
+    public void write(int b) {
+        count++;
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) {
+        count += len;
+    }
+
+    long getCount() {
+        return count;
+    }
+}
@@ -0,0 +1,98 @@
+package org.protege.editor.owl.integration;
+
+import org.protege.editor.owl.server.versioning.api.ChangeHistory;
+import org.protege.editor.owl.server.versioning.api.DocumentRevision;
+
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLAnnotationAssertionAxiom;
+import org.semanticweb.owlapi.model.OWLEntity;
+import org.semanticweb.owlapi.model.OWLOntologyChange;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Maps entity IRIs to the revisions and the changes that reference them, so that the
+ * question "which commits touched this entity" does not need a scan over every change of the
+ * history. An entity is referenced by a change if it is in the signature of the changed
+ * axiom or annotation, or if its IRI is the subject or the value of a changed annotation
+ * assertion (the same references {@link CommitChangesTest#shouldCommitDeletion()} removes).
+ * <p>
+ * The index is built incrementally: {@link #update(ChangeHistory)} only reads the revisions
+ * that were added since the last update.
+ */
+final class EntityRevisionIndex {
+
+    private final Map<IRI, Map<DocumentRevision, List<OWLOntologyChange>>> index = new HashMap<>();
+
+    private int indexedRevisions = 0;
+
+    /**
+     * Indexes the revisions of the given history that are not indexed yet. The history must
+     * start at R0 and extend the history of the previous update.
+     */
+    synchronized void update(ChangeHistory changeHistory) {
+        int headRevision = changeHistory.getRevisions().size();
+        for (int i = indexedRevisions + 1; i <= headRevision; i++) {
+            DocumentRevision revision = DocumentRevision.create(i);
+            for (OWLOntologyChange change : changeHistory.getChangesForRevision(revision)) {
+                for (IRI iri : getReferencedIris(change)) {
+                    index.computeIfAbsent(iri, k -> new LinkedHashMap<>())
+                            .computeIfAbsent(revision, k -> new ArrayList<>())
+                            .add(change);
+                }
+            }
+        }
+        indexedRevisions = Math.max(indexedRevisions, headRevision);
+    }
+
+    /**
+     * Returns the revisions that reference the given entity, oldest first.
+     */
+    synchronized List<DocumentRevision> getRevisions(IRI entity) {
+        Map<DocumentRevision, List<OWLOntologyChange>> revisions = index.get(entity);
+        return revisions == null ? Collections.emptyList() : new ArrayList<>(revisions.keySet());
+    }
+
+    /**
+     * Returns the changes of the given revision that reference the given entity.
+     */
+    synchronized List<OWLOntologyChange> getChanges(IRI entity, DocumentRevision revision) {
+        Map<DocumentRevision, List<OWLOntologyChange>> revisions = index.get(entity);
+        if (revisions == null || !revisions.containsKey(revision)) {
+            return Collections.emptyList();
+        }
+        return Collections.unmodifiableList(revisions.get(revision));
+    }
+
+    synchronized int getIndexedRevisions() {
+        return indexedRevisions;
+    }
+
+    /**
+     * Returns the IRIs of the entities the given change references, i.e., the rule by which
+     * the index files the change.
+     */
+    static Set<IRI> getReferencedIris(OWLOntologyChange change) {
+        Set<IRI> iris = new HashSet<>();
+        for (OWLEntity entity : change.getSignature()) {
+            iris.add(entity.getIRI());
+        }
+        if (change.isAxiomChange() && change.getAxiom() instanceof OWLAnnotationAssertionAxiom) {
+            OWLAnnotationAssertionAxiom asa = (OWLAnnotationAssertionAxiom) change.getAxiom();
+            if (asa.getSubject() instanceof IRI) {
+                iris.add((IRI) asa.getSubject());
+            }
+            if (asa.getValue() instanceof IRI) {
+                iris.add((IRI) asa.getValue());
+            }
+        }
+        return iris;
+    }
+}
@@ -0,0 +1,142 @@
+package org.protege.editor.owl.integration;
+
+import static org.semanticweb.owlapi.apibinding.OWLFunctionalSyntaxFactory.Class;
+import static org.semanticweb.owlapi.apibinding.OWLFunctionalSyntaxFactory.IRI;
+
+import org.protege.editor.owl.client.api.Client;
+import org.protege.editor.owl.client.util.ChangeUtils;
+import org.protege.editor.owl.client.util.ClientUtils;
+import org.protege.editor.owl.server.api.CommitBundle;
+import org.protege.editor.owl.server.policy.CommitBundleImpl;
+import org.protege.editor.owl.server.versioning.Commit;
+import org.protege.editor.owl.server.versioning.api.ChangeHistory;
+import org.protege.editor.owl.server.versioning.api.DocumentRevision;
+import org.protege.editor.owl.server.versioning.api.VersionedOWLOntology;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyChange;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import edu.stanford.protege.metaproject.api.ProjectId;
+
+/**
+ * Compares finding the revisions that touched an entity with an {@link EntityRevisionIndex}
+ * against scanning the changes of every revision, on a pizza project with a 10k-revision
+ * history. The entity is <code>DomainConcept</code>, which the history builder references
+ * in every revision, and <code>MeatTopping</code>, which only the initial commit references.
+ * The scan applies the same rule as the index, and the setup checks that both find the same
+ * revisions.
+ * <p>
+ * The benchmark expects a running server at {@link BaseTest#SERVER_ADDRESS}. Run it with
+ * <code>mvn verify -Pbenchmark -Dbenchmark.includes=EntityRevisionIndexBenchmark</code>.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class EntityRevisionIndexBenchmark {
+
+    private static final String ONTOLOGY_ID = BaseTest.PizzaOntology.getId() + "#";
+
+    private static final OWLClass DOMAIN_CONCEPT = Class(IRI(ONTOLOGY_ID, "DomainConcept"));
+    private static final IRI MEAT_TOPPING = IRI(ONTOLOGY_ID, "MeatTopping");
+
+    private static final int NUMBER_OF_REVISIONS = 10000;
+
+    private Client admin;
+    private ProjectId projectId;
+    private ChangeHistory changeHistory;
+    private EntityRevisionIndex index;
+
+    @Setup(Level.Trial)
+    public void createHistory() throws Exception {
+        admin = BaseTest.login(BaseTest.f.getUserId("root"), BaseTest.f.getPlainPassword("rootpwd"));
+        projectId = BaseTest.f.getProjectId("pizza-" + System.currentTimeMillis()); // currentTimeMilis() for uniqueness
+        OWLOntology ontology = OWLManager.createOWLOntologyManager()
+                .loadOntologyFromOntologyDocument(BaseTest.PizzaOntology.getResource());
+        List<OWLOntologyChange> changes = ClientUtils.getUncommittedChanges(ontology);
+        Commit initialCommit = ClientUtils.createCommit(admin, "First commit", changes);
+        CommitBundle commitBundle = new CommitBundleImpl(BaseTest.R0, initialCommit);
+        admin.createProject(projectId,
+                BaseTest.f.getName("Pizza Project"),
+                BaseTest.f.getDescription("Entity revision index benchmark"),
+                BaseTest.f.getUserId("root"),
+                Optional.empty(), Optional.of(commitBundle));
+
+        VersionedOWLOntology vont = ClientUtils.buildVersionedOntology(admin.openProject(projectId),
+                OWLManager.createOWLOntologyManager());
+        HistoryBuilder.appendRevisions(admin, projectId, vont, DOMAIN_CONCEPT, NUMBER_OF_REVISIONS - 1);
+        changeHistory = ChangeUtils.getAllChanges(vont.getServerDocument());
+        index = new EntityRevisionIndex();
+        index.update(changeHistory);
+        for (IRI entity : new IRI[] { DOMAIN_CONCEPT.getIRI(), MEAT_TOPPING }) {
+            if (!scan(entity).equals(index.getRevisions(entity))) {
+                throw new IllegalStateException("The scan and the index disagree on the revisions of " + entity);
+            }
+        }
+    }
+
+    @Benchmark
+    public List<DocumentRevision> scanFrequentEntity() {
+        return scan(DOMAIN_CONCEPT.getIRI());
+    }
+
+    @Benchmark
+    public List<DocumentRevision> lookUpFrequentEntity() {
+        return index.getRevisions(DOMAIN_CONCEPT.getIRI());
+    }
+
+    @Benchmark
+    public List<DocumentRevision> scanRareEntity() {
+        return scan(MEAT_TOPPING);
+    }
+
+    @Benchmark
+    public List<DocumentRevision> lookUpRareEntity() {
+        return index.getRevisions(MEAT_TOPPING);
+    }
+
+    /*
+     * The full scan over the results of getChangesForRevision that the index replaces, with
+     * the matching rule of the index
+     */
+    private List<DocumentRevision> scan(IRI entity) {
+        List<DocumentRevision> revisions = new ArrayList<>();
+        for (int i = 1; i <= changeHistory.getRevisions().size(); i++) {
+            DocumentRevision revision = DocumentRevision.create(i);
+            for (OWLOntologyChange change : changeHistory.getChangesForRevision(revision)) {
+                if (EntityRevisionIndex.getReferencedIris(change).contains(entity)) {
+                    revisions.add(revision);
+                    break;
+                }
+            }
+        }
+        return revisions;
+    }
+
+    @TearDown(Level.Trial)
+    public void removeProject() throws Exception {
+        admin.deleteProject(projectId, true);
+    }
+}
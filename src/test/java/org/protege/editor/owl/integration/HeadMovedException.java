@@ -0,0 +1,26 @@
+package org.protege.editor.owl.integration;
+
+import org.protege.editor.owl.server.versioning.api.DocumentRevision;
+
+/**
+ * Thrown when a history was requested at a head revision that is no longer the head of the
+ * project on the server. The reader can request the history again at the actual head.
+ */
+class HeadMovedException extends Exception {
+
+    private static final long serialVersionUID = -3875112465203399811L;
+
+    private final DocumentRevision headRevision;
+
+    HeadMovedException(String message, DocumentRevision headRevision) {
+        super(message);
+        this.headRevision = headRevision;
+    }
+
+    /**
+     * Returns the head revision of the history the server sent.
+     */
+    DocumentRevision getHeadRevision() {
+        return headRevision;
+    }
+}
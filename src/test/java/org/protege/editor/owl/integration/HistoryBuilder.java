@@ -0,0 +1,72 @@
+package org.protege.editor.owl.integration;
+
+import static org.semanticweb.owlapi.apibinding.OWLFunctionalSyntaxFactory.Class;
+import static org.semanticweb.owlapi.apibinding.OWLFunctionalSyntaxFactory.Declaration;
+import static org.semanticweb.owlapi.apibinding.OWLFunctionalSyntaxFactory.IRI;
+import static org.semanticweb.owlapi.apibinding.OWLFunctionalSyntaxFactory.SubClassOf;
+
+import org.protege.editor.owl.client.api.Client;
+import org.protege.editor.owl.client.util.ClientUtils;
+import org.protege.editor.owl.server.api.CommitBundle;
+import org.protege.editor.owl.server.policy.CommitBundleImpl;
+import org.protege.editor.owl.server.versioning.Commit;
+import org.protege.editor.owl.server.versioning.api.ChangeHistory;
+import org.protege.editor.owl.server.versioning.api.DocumentRevision;
+import org.protege.editor.owl.server.versioning.api.VersionedOWLOntology;
+
+import org.semanticweb.owlapi.model.AddAxiom;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyChange;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import edu.stanford.protege.metaproject.api.ProjectId;
+
+/**
+ * Grows the history of a project by committing many small revisions, each one declaring a
+ * new concept under a given parent class (the same edit as in
+ * {@link CommitChangesTest#shouldCommitAddition()}).
+ */
+final class HistoryBuilder {
+
+    static final int CHANGES_PER_REVISION = 2;
+
+    private HistoryBuilder() {
+        // NO-OP
+    }
+
+    /**
+     * Commits <code>numberOfRevisions</code> new revisions and keeps the given versioned
+     * ontology at the head revision.
+     */
+    static void appendRevisions(Client client, ProjectId projectId, VersionedOWLOntology vont, OWLClass parent,
+            int numberOfRevisions) throws Exception {
+        OWLOntology workingOntology = vont.getOntology();
+        for (int i = 0; i < numberOfRevisions; i++) {
+            OWLClass concept = Class(IRI(parent.getIRI().getNamespace(),
+                    "HistoryConcept" + vont.getChangeHistory().getRevisions().size()));
+            List<OWLOntologyChange> changes = new ArrayList<>();
+            changes.add(new AddAxiom(workingOntology, Declaration(concept)));
+            changes.add(new AddAxiom(workingOntology, SubClassOf(concept, parent)));
+            workingOntology.getOWLOntologyManager().applyChanges(changes);
+
+            Commit commit = ClientUtils.createCommit(client, "Add " + concept.getIRI().getShortForm(), changes);
+            CommitBundle commitBundle = new CommitBundleImpl(vont.getHeadRevision(), commit);
+            ChangeHistory approvedChanges = client.commit(projectId, commitBundle);
+            vont.update(approvedChanges);
+        }
+    }
+
+    /**
+     * Returns the total number of changes over all revisions of the given history.
+     */
+    static int countChanges(ChangeHistory changeHistory) {
+        int count = 0;
+        for (int i = 1; i <= changeHistory.getRevisions().size(); i++) {
+            count += changeHistory.getChangesForRevision(DocumentRevision.create(i)).size();
+        }
+        return count;
+    }
+}
@@ -0,0 +1,106 @@
+package org.protege.editor.owl.integration;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.semanticweb.owlapi.apibinding.OWLFunctionalSyntaxFactory.Class;
+import static org.semanticweb.owlapi.apibinding.OWLFunctionalSyntaxFactory.IRI;
+
+import org.protege.editor.owl.client.api.Client;
+import org.protege.editor.owl.client.util.ClientUtils;
+import org.protege.editor.owl.server.api.CommitBundle;
+import org.protege.editor.owl.server.policy.CommitBundleImpl;
+import org.protege.editor.owl.server.versioning.Commit;
+import org.protege.editor.owl.server.versioning.api.DocumentRevision;
+import org.protege.editor.owl.server.versioning.api.ServerDocument;
+import org.protege.editor.owl.server.versioning.api.VersionedOWLOntology;
+
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameter;
+import org.junit.runners.Parameterized.Parameters;
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLOntologyChange;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+import edu.stanford.protege.metaproject.api.ProjectId;
+
+/**
+ * Records how long opening a project takes as its history grows from 100 to 10,000
+ * revisions. A single pizza project is grown between the runs, so the sweep must be in
+ * ascending order. Opening replays every revision from R0, hence the open time is expected
+ * to grow with the history depth until the server can start from a snapshot.
+ * <p>
+ * The sweep can be overridden with <code>-Dhistory.depths=100,1000</code>.
+ */
+@RunWith(Parameterized.class)
+public class HistoryDepthOpenIT extends BaseTest {
+
+    private static final OWLClass DOMAIN_CONCEPT = Class(IRI(PizzaOntology.getId() + "#", "DomainConcept"));
+
+    private static final PerformanceReport report = new PerformanceReport("history-depth-open");
+
+    private static ProjectId projectId;
+
+    private static VersionedOWLOntology projectAtHead;
+
+    @Parameters(name = "{0} revisions")
+    public static Collection<Object[]> depths() {
+        List<Object[]> parameters = new ArrayList<>();
+        for (String depth : System.getProperty("history.depths", "100,1000,10000").split(",")) {
+            parameters.add(new Object[] { Integer.valueOf(depth.trim()) });
+        }
+        return parameters;
+    }
+
+    @Parameter
+    public int numberOfRevisions;
+
+    @Before
+    public void growHistory() throws Exception {
+        if (projectId == null) {
+            projectId = f.getProjectId("pizza-" + System.currentTimeMillis()); // currentTimeMilis() for uniqueness
+            List<OWLOntologyChange> changes = PizzaOntology.getInitialChanges();
+            Commit initialCommit = ClientUtils.createCommit(getAdmin(), "First commit", changes);
+            CommitBundle commitBundle = new CommitBundleImpl(R0, initialCommit);
+            getAdmin().createProject(projectId, f.getName("Pizza Project"), f.getDescription("History depth"),
+                    f.getUserId("root"), Optional.empty(), Optional.of(commitBundle));
+            projectAtHead = ClientUtils.buildVersionedOntology(getAdmin().openProject(projectId),
+                    OWLManager.createOWLOntologyManager());
+        }
+        int missingRevisions = numberOfRevisions - projectAtHead.getChangeHistory().getRevisions().size();
+        HistoryBuilder.appendRevisions(getAdmin(), projectId, projectAtHead, DOMAIN_CONCEPT, missingRevisions);
+    }
+
+    @Test
+    public void shouldOpenProject() throws Exception {
+        Client guest = login(f.getUserId("guest"), f.getPlainPassword("guestpwd"));
+
+        long start = System.nanoTime();
+        ServerDocument serverDocument = guest.openProject(projectId);
+        VersionedOWLOntology vont = ClientUtils.buildVersionedOntology(serverDocument, owlManager);
+        long elapsed = System.nanoTime() - start;
+
+        String scenario = numberOfRevisions + " revisions";
+        report.record(scenario, "openProject", PerformanceReport.millis(elapsed), "ms");
+        report.record(scenario, "historyFile", PerformanceReport.megabytes(serverDocument.getHistoryFile().length()), "MB");
+
+        assertThat(vont.getHeadRevision(), is(DocumentRevision.create(numberOfRevisions)));
+        assertThat(vont.getOntology().getAxioms(), is(projectAtHead.getOntology().getAxioms()));
+    }
+
+    @AfterClass
+    public static void removeProject() throws Exception {
+        if (projectId != null) {
+            login(f.getUserId("root"), f.getPlainPassword("rootpwd")).deleteProject(projectId, true);
+        }
+        report.write();
+    }
+}
@@ -0,0 +1,112 @@
+package org.protege.editor.owl.integration;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.semanticweb.owlapi.apibinding.OWLFunctionalSyntaxFactory.Class;
+import static org.semanticweb.owlapi.apibinding.OWLFunctionalSyntaxFactory.IRI;
+
+import org.protege.editor.owl.client.api.Client;
+import org.protege.editor.owl.client.util.ChangeUtils;
+import org.protege.editor.owl.client.util.ClientUtils;
+import org.protege.editor.owl.server.api.CommitBundle;
+import org.protege.editor.owl.server.policy.CommitBundleImpl;
+import org.protege.editor.owl.server.versioning.Commit;
+import org.protege.editor.owl.server.versioning.api.ChangeHistory;
+import org.protege.editor.owl.server.versioning.api.DocumentRevision;
+import org.protege.editor.owl.server.versioning.api.ServerDocument;
+import org.protege.editor.owl.server.versioning.api.VersionedOWLOntology;
+
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.Test;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLOntologyChange;
+
+import java.util.List;
+import java.util.Optional;
+
+import edu.stanford.protege.metaproject.api.PlainPassword;
+import edu.stanford.protege.metaproject.api.ProjectId;
+import edu.stanford.protege.metaproject.api.UserId;
+
+/**
+ * Measures the history a client materializes when it re-opens a project with a 1000-revision
+ * history while it already knows the first 990 revisions. The size is the serialized size of
+ * the change history read with {@link ChangeUtils#getAllChanges(ServerDocument)}, not bytes
+ * measured on the wire.
+ * <p>
+ * The client API has no way to request only the revisions after a known one, so the delta
+ * is derived from the two history sizes and not downloaded.
+ */
+public class HistoryDownloadIT extends BaseTest {
+
+    private static final OWLClass DOMAIN_CONCEPT = Class(IRI(PizzaOntology.getId() + "#", "DomainConcept"));
+
+    private static final int KNOWN_REVISIONS = 990;
+    private static final int TOTAL_REVISIONS = 1000;
+
+    private static final PerformanceReport report = new PerformanceReport("history-download");
+
+    private ProjectId projectId;
+
+    @Before
+    public void createProject() throws Exception {
+        projectId = f.getProjectId("pizza-" + System.currentTimeMillis()); // currentTimeMilis() for uniqueness
+        List<OWLOntologyChange> changes = PizzaOntology.getInitialChanges();
+        Commit initialCommit = ClientUtils.createCommit(getAdmin(), "First commit", changes);
+        CommitBundle commitBundle = new CommitBundleImpl(R0, initialCommit);
+        getAdmin().createProject(projectId, f.getName("Pizza Project"), f.getDescription("History download"),
+                f.getUserId("root"), Optional.empty(), Optional.of(commitBundle));
+    }
+
+    @Test
+    public void shouldMeasureHistoryReadOnReopen() throws Exception {
+        VersionedOWLOntology vont = ClientUtils.buildVersionedOntology(getAdmin().openProject(projectId), owlManager);
+        HistoryBuilder.appendRevisions(getAdmin(), projectId, vont, DOMAIN_CONCEPT, KNOWN_REVISIONS - 1);
+
+        /*
+         * The guest has seen the project up to R990
+         */
+        UserId guestId = f.getUserId("guest");
+        PlainPassword guestPassword = f.getPlainPassword("guestpwd");
+        Client guest = login(guestId, guestPassword);
+        ServerDocument serverDocument = guest.openProject(projectId);
+        long knownHistoryBytes = PerformanceReport.serializedSize(ChangeUtils.getAllChanges(serverDocument));
+
+        HistoryBuilder.appendRevisions(getAdmin(), projectId, vont, DOMAIN_CONCEPT, TOTAL_REVISIONS - KNOWN_REVISIONS);
+
+        /*
+         * Re-open: the whole history is read again
+         */
+        long start = System.nanoTime();
+        ChangeHistory changeHistoryFromServer = ChangeUtils.getAllChanges(guest.openProject(projectId));
+        long elapsed = System.nanoTime() - start;
+        long historyBytes = PerformanceReport.serializedSize(changeHistoryFromServer);
+        int historyChanges = HistoryBuilder.countChanges(changeHistoryFromServer);
+
+        int deltaChanges = (TOTAL_REVISIONS - KNOWN_REVISIONS) * HistoryBuilder.CHANGES_PER_REVISION;
+        long deltaBytes = historyBytes - knownHistoryBytes;
+
+        String scenario = TOTAL_REVISIONS + " revisions";
+        report.record(scenario, "reopenLatency", PerformanceReport.millis(elapsed), "ms");
+        report.record(scenario, "serializedHistory", historyBytes, "bytes");
+        report.record(scenario, "historyChanges", historyChanges, "changes");
+        report.record(scenario, "serializedDelta", deltaBytes, "bytes");
+        report.record(scenario, "deltaChanges", deltaChanges, "changes");
+        report.record(scenario, "historyToDeltaRatio", (double) historyBytes / deltaBytes, "x");
+
+        // Assert the re-opened project is at the new head
+        assertThat(changeHistoryFromServer.getHeadRevision(), is(DocumentRevision.create(TOTAL_REVISIONS)));
+    }
+
+    @After
+    public void removeProject() throws Exception {
+        getAdmin().deleteProject(projectId, true);
+    }
+
+    @AfterClass
+    public static void writeReport() throws Exception {
+        report.write();
+    }
+}
@@ -0,0 +1,109 @@
+package org.protege.editor.owl.integration;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.is;
+
+import org.protege.editor.owl.client.util.ChangeUtils;
+import org.protege.editor.owl.client.util.ClientUtils;
+import org.protege.editor.owl.server.api.CommitBundle;
+import org.protege.editor.owl.server.policy.CommitBundleImpl;
+import org.protege.editor.owl.server.versioning.Commit;
+import org.protege.editor.owl.server.versioning.api.ChangeHistory;
+import org.protege.editor.owl.server.versioning.api.ServerDocument;
+
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Test;
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyChange;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.Optional;
+import java.util.zip.DeflaterOutputStream;
+
+import edu.stanford.protege.metaproject.api.ProjectId;
+
+/**
+ * Records the size of the server history file and the time to load it with
+ * {@link ChangeUtils#getAllChanges(ServerDocument)} for the pizza ontology and for a large
+ * synthetic ontology. The deflated size of the file is reported next to it as an estimate of
+ * how much of the encoding is repetition, e.g., of IRIs.
+ * <p>
+ * The size of the synthetic ontology can be changed with <code>-Dhistory.axioms=...</code>.
+ */
+public class HistoryFileSizeIT extends BaseTest {
+
+    private static final int NUMBER_OF_AXIOMS = Integer.getInteger("history.axioms", 1000000);
+
+    private static final PerformanceReport report = new PerformanceReport("history-file-size");
+
+    private ProjectId projectId;
+
+    @Test
+    public void shouldMeasurePizzaHistoryFile() throws Exception {
+        OWLOntology ontology = OWLManager.createOWLOntologyManager().loadOntologyFromOntologyDocument(PizzaOntology.getResource());
+        measureHistoryFile("pizza", ontology);
+    }
+
+    @Test
+    public void shouldMeasureLargeHistoryFile() throws Exception {
+        OWLOntology ontology = SyntheticPizzaOntology.generate(OWLManager.createOWLOntologyManager(), NUMBER_OF_AXIOMS);
+        measureHistoryFile(NUMBER_OF_AXIOMS + " axioms", ontology);
+    }
+
+    private void measureHistoryFile(String scenario, OWLOntology ontology) throws Exception {
+        projectId = f.getProjectId("history-" + System.currentTimeMillis()); // currentTimeMilis() for uniqueness
+        List<OWLOntologyChange> changes = ClientUtils.getUncommittedChanges(ontology);
+        Commit initialCommit = ClientUtils.createCommit(getAdmin(), "First commit", changes);
+        CommitBundle commitBundle = new CommitBundleImpl(R0, initialCommit);
+        ServerDocument serverDocument = getAdmin().createProject(projectId, f.getName("History File Project"),
+                f.getDescription(scenario), f.getUserId("root"), Optional.empty(), Optional.of(commitBundle));
+
+        File historyFile = serverDocument.getHistoryFile();
+        long historyFileSize = historyFile.length();
+        long deflatedSize = deflatedSize(historyFile);
+
+        long start = System.nanoTime();
+        ChangeHistory changeHistory = ChangeUtils.getAllChanges(serverDocument);
+        long loadTime = System.nanoTime() - start;
+
+        report.record(scenario, "historyFile", historyFileSize, "bytes");
+        report.record(scenario, "bytesPerChange", (double) historyFileSize / changes.size(), "bytes");
+        report.record(scenario, "deflatedHistoryFile", deflatedSize, "bytes");
+        report.record(scenario, "compressionRatio", (double) historyFileSize / deflatedSize, "x");
+        report.record(scenario, "getAllChanges", PerformanceReport.millis(loadTime), "ms");
+
+        assertThat(historyFileSize, is(greaterThan(0L)));
+        assertThat(changeHistory.getChangesForRevision(R1).size(), is(changes.size()));
+    }
+
+    private static long deflatedSize(File file) throws IOException {
+        CountingOutputStream counter = new CountingOutputStream();
+        byte[] buffer = new byte[8192];
+        try (InputStream in = new FileInputStream(file);
+                OutputStream out = new DeflaterOutputStream(counter)) {
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                out.write(buffer, 0, read);
+            }
+        }
+        return counter.getCount();
+    }
+
+    @After
+    public void removeProject() throws Exception {
+        getAdmin().deleteProject(projectId, true);
+    }
+
+    @AfterClass
+    public static void writeReport() throws Exception {
+        report.write();
+    }
+}
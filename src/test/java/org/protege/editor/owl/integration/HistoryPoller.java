@@ -0,0 +1,201 @@
+package org.protege.editor.owl.integration;
+
+import org.protege.editor.owl.client.api.Client;
+import org.protege.editor.owl.client.util.ChangeUtils;
+import org.protege.editor.owl.server.versioning.api.ChangeHistory;
+import org.protege.editor.owl.server.versioning.api.DocumentRevision;
+import org.protege.editor.owl.server.versioning.api.ServerDocument;
+
+import org.semanticweb.owlapi.model.OWLOntologyChange;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import edu.stanford.protege.metaproject.api.ProjectId;
+
+/**
+ * Polls the complete history of the projects it was asked to follow and calls back when
+ * their head revision has moved, e.g., after a commit of another user.
+ * <p>
+ * This is not a push of new revisions: the client API has no way for the server to notify
+ * a client, nor a way to request only the revisions after a known one. Every poll therefore
+ * downloads the whole history of the project, and a new revision is seen at the first poll
+ * after its commit. What the poller does save is polls: it polls each project once per
+ * interval however many listeners the project has, and it only calls the listeners when
+ * the head revision has moved, with the changes of the revisions after the last head it
+ * had seen.
+ * <p>
+ * A poll that fails is logged and reported to the listeners, and the poller tries again at
+ * the next interval.
+ */
+final class HistoryPoller implements AutoCloseable {
+
+    /**
+     * Receives the new revisions of a polled project whenever its head revision has moved.
+     */
+    @FunctionalInterface
+    interface Listener {
+
+        /**
+         * @param newRevisions
+         *          The changes of every revision after the last head seen, in revision order
+         */
+        void headMoved(ProjectId projectId, Map<DocumentRevision, List<OWLOntologyChange>> newRevisions);
+
+        /**
+         * Called when the poller could not read the history of a polled project.
+         */
+        default void pollFailed(ProjectId projectId, Exception e) {
+            // Ignored by default, the failure is logged by the poller
+        }
+    }
+
+    private static final Logger logger = Logger.getLogger(HistoryPoller.class.getName());
+
+    private final Client client;
+    private final long pollInterval;
+    private final TimeUnit unit;
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "history-poller");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final Map<ProjectId, Subscription> subscriptions = new ConcurrentHashMap<>();
+
+    private final AtomicLong pollCount = new AtomicLong();
+    private final AtomicLong pollNanos = new AtomicLong();
+
+    HistoryPoller(Client client, long pollInterval, TimeUnit unit) {
+        this.client = client;
+        this.pollInterval = pollInterval;
+        this.unit = unit;
+    }
+
+    synchronized void subscribe(ProjectId projectId, Listener listener) throws Exception {
+        Subscription subscription = subscriptions.get(projectId);
+        if (subscription == null) {
+            subscription = new Subscription(projectId, client.openProject(projectId));
+            subscription.start();
+            subscriptions.put(projectId, subscription);
+        }
+        subscription.listeners.add(listener);
+    }
+
+    synchronized void unsubscribe(ProjectId projectId, Listener listener) {
+        Subscription subscription = subscriptions.get(projectId);
+        if (subscription != null) {
+            subscription.listeners.remove(listener);
+            if (subscription.listeners.isEmpty()) {
+                subscription.stop();
+                subscriptions.remove(projectId);
+            }
+        }
+    }
+
+    /**
+     * Returns the number of history downloads sent to the server so far.
+     */
+    long getPollCount() {
+        return pollCount.get();
+    }
+
+    /**
+     * Returns the total time spent in history downloads so far.
+     */
+    long getPollTime() {
+        return pollNanos.get();
+    }
+
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+    }
+
+    private class Subscription implements Runnable {
+
+        private final ProjectId projectId;
+        private final ServerDocument serverDocument;
+        private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+
+        private int lastSeenRevisionCount;
+        private ScheduledFuture<?> task;
+
+        Subscription(ProjectId projectId, ServerDocument serverDocument) throws Exception {
+            this.projectId = projectId;
+            this.serverDocument = serverDocument;
+            this.lastSeenRevisionCount = countRevisions(ChangeUtils.getAllChanges(serverDocument));
+        }
+
+        void start() {
+            task = scheduler.scheduleWithFixedDelay(this, pollInterval, pollInterval, unit);
+        }
+
+        void stop() {
+            task.cancel(false);
+        }
+
+        @Override
+        public void run() {
+            try {
+                poll();
+            }
+            catch (Exception e) {
+                logger.log(Level.WARNING, "Cannot poll the history of project " + projectId.get(), e);
+                for (Listener listener : listeners) {
+                    listener.pollFailed(projectId, e);
+                }
+                // Try again at the next poll
+            }
+        }
+
+        private void poll() throws Exception {
+            long start = System.nanoTime();
+            ChangeHistory changeHistory;
+            try {
+                changeHistory = ChangeUtils.getAllChanges(serverDocument);
+            }
+            finally {
+                pollCount.incrementAndGet();
+                pollNanos.addAndGet(System.nanoTime() - start);
+            }
+            int revisionCount = countRevisions(changeHistory);
+            if (revisionCount == lastSeenRevisionCount) {
+                return;
+            }
+            Map<DocumentRevision, List<OWLOntologyChange>> newRevisions = new LinkedHashMap<>();
+            for (int i = lastSeenRevisionCount + 1; i <= revisionCount; i++) {
+                DocumentRevision revision = DocumentRevision.create(i);
+                newRevisions.put(revision, changeHistory.getChangesForRevision(revision));
+            }
+            lastSeenRevisionCount = revisionCount;
+            for (Listener listener : listeners) {
+                listener.headMoved(projectId, Collections.unmodifiableMap(newRevisions));
+            }
+        }
+    }
+
+    /*
+     * Returns the number of revisions of a history that starts at R0, i.e., the number of its
+     * head revision.
+     */
+    private static int countRevisions(ChangeHistory changeHistory) {
+        if (!changeHistory.getBaseRevision().equals(DocumentRevision.START_REVISION)) {
+            throw new IllegalStateException("History must start at " + DocumentRevision.START_REVISION
+                    + " but starts at " + changeHistory.getBaseRevision());
+        }
+        return changeHistory.getRevisions().size();
+    }
+}
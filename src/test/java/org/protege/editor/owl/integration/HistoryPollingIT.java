@@ -0,0 +1,159 @@
+package org.protege.editor.owl.integration;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.semanticweb.owlapi.apibinding.OWLFunctionalSyntaxFactory.Class;
+import static org.semanticweb.owlapi.apibinding.OWLFunctionalSyntaxFactory.IRI;
+
+import org.protege.editor.owl.client.api.Client;
+import org.protege.editor.owl.client.util.ClientUtils;
+import org.protege.editor.owl.server.api.CommitBundle;
+import org.protege.editor.owl.server.policy.CommitBundleImpl;
+import org.protege.editor.owl.server.versioning.Commit;
+import org.protege.editor.owl.server.versioning.api.DocumentRevision;
+import org.protege.editor.owl.server.versioning.api.VersionedOWLOntology;
+
+import org.HdrHistogram.Histogram;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.Test;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLOntologyChange;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import edu.stanford.protege.metaproject.api.ProjectId;
+
+/**
+ * Measures how long after a commit of the admin a guest polling the project with a
+ * {@link HistoryPoller} sees the new revision. The server cannot push revisions, so this is
+ * bounded by the poll interval plus the time to download the whole history. It also
+ * compares the history downloads the server gets from 100 idle guests that each poll with
+ * their own poller on their own client with those of one poller shared by 100 listeners.
+ * <p>
+ * The poll interval can be set with <code>-Dpoll.interval=50</code> (milliseconds).
+ */
+public class HistoryPollingIT extends BaseTest {
+
+    private static final OWLClass DOMAIN_CONCEPT = Class(IRI(PizzaOntology.getId() + "#", "DomainConcept"));
+
+    private static final long POLL_INTERVAL = Long.getLong("poll.interval", 50);
+    private static final int NUMBER_OF_COMMITS = 20;
+    private static final int IDLE_LISTENERS = 100;
+    private static final long IDLE_PERIOD = TimeUnit.SECONDS.toMillis(10);
+
+    private static final PerformanceReport report = new PerformanceReport("history-polling");
+
+    private ProjectId projectId;
+
+    private HistoryPoller poller;
+
+    @Before
+    public void createProject() throws Exception {
+        projectId = f.getProjectId("pizza-" + System.currentTimeMillis()); // currentTimeMilis() for uniqueness
+        List<OWLOntologyChange> changes = PizzaOntology.getInitialChanges();
+        Commit initialCommit = ClientUtils.createCommit(getAdmin(), "First commit", changes);
+        CommitBundle commitBundle = new CommitBundleImpl(R0, initialCommit);
+        getAdmin().createProject(projectId, f.getName("Pizza Project"), f.getDescription("History polling"),
+                f.getUserId("root"), Optional.empty(), Optional.of(commitBundle));
+
+        Client guest = login(f.getUserId("guest"), f.getPlainPassword("guestpwd"));
+        poller = new HistoryPoller(guest, POLL_INTERVAL, TimeUnit.MILLISECONDS);
+    }
+
+    @Test
+    public void shouldSeeCommitAtNextPoll() throws Exception {
+        BlockingQueue<Map<DocumentRevision, List<OWLOntologyChange>>> received = new LinkedBlockingQueue<>();
+        poller.subscribe(projectId, (project, newRevisions) -> received.add(newRevisions));
+
+        VersionedOWLOntology vont = ClientUtils.buildVersionedOntology(getAdmin().openProject(projectId), owlManager);
+        Histogram delay = new Histogram(3);
+        for (int i = 0; i < NUMBER_OF_COMMITS; i++) {
+            HistoryBuilder.appendRevisions(getAdmin(), projectId, vont, DOMAIN_CONCEPT, 1);
+            long approved = System.nanoTime();
+            DocumentRevision committed = vont.getHeadRevision();
+
+            Map<DocumentRevision, List<OWLOntologyChange>> newRevisions = received.poll(10, TimeUnit.SECONDS);
+            delay.recordValue(System.nanoTime() - approved);
+            assertThat("The guest should see revision " + committed, newRevisions, notNullValue());
+            assertThat(newRevisions.keySet(), contains(committed));
+            assertThat(newRevisions.get(committed).size(), is(HistoryBuilder.CHANGES_PER_REVISION));
+        }
+
+        String scenario = "poll every " + POLL_INTERVAL + " ms";
+        report.record(scenario, "detectionDelayP50", PerformanceReport.millis(delay.getValueAtPercentile(50)), "ms");
+        report.record(scenario, "detectionDelayMax", PerformanceReport.millis(delay.getMaxValue()), "ms");
+    }
+
+    @Test
+    public void shouldPollOncePerProjectForIdleListeners() throws Exception {
+        /*
+         * Every guest polls with its own poller on its own client
+         */
+        List<HistoryPoller> ownPollers = new ArrayList<>();
+        try {
+            for (int i = 0; i < IDLE_LISTENERS; i++) {
+                Client client = login(f.getUserId("guest"), f.getPlainPassword("guestpwd"));
+                HistoryPoller ownPoller = new HistoryPoller(client, POLL_INTERVAL, TimeUnit.MILLISECONDS);
+                ownPollers.add(ownPoller);
+                ownPoller.subscribe(projectId, (project, newRevisions) -> {});
+            }
+            long start = System.nanoTime();
+            Thread.sleep(IDLE_PERIOD);
+            long elapsed = System.nanoTime() - start;
+            long polls = 0;
+            long pollTime = 0;
+            for (HistoryPoller ownPoller : ownPollers) {
+                polls += ownPoller.getPollCount();
+                pollTime += ownPoller.getPollTime();
+            }
+            recordPolling(IDLE_LISTENERS + " pollers on " + IDLE_LISTENERS + " clients", polls, pollTime, elapsed);
+        }
+        finally {
+            for (HistoryPoller ownPoller : ownPollers) {
+                ownPoller.close();
+            }
+        }
+
+        /*
+         * All guests listen to one shared poller
+         */
+        for (int i = 0; i < IDLE_LISTENERS; i++) {
+            poller.subscribe(projectId, (project, newRevisions) -> {});
+        }
+        long start = System.nanoTime();
+        Thread.sleep(IDLE_PERIOD);
+        long elapsed = System.nanoTime() - start;
+        long polls = poller.getPollCount();
+        recordPolling(IDLE_LISTENERS + " listeners on 1 poller", polls, poller.getPollTime(), elapsed);
+
+        // Assert the listeners share one poll per interval
+        assertThat(polls, lessThanOrEqualTo(IDLE_PERIOD / POLL_INTERVAL + 1));
+    }
+
+    private static void recordPolling(String scenario, long polls, long pollTime, long elapsed) {
+        report.record(scenario, "historyDownloads", polls / (elapsed / 1e9), "downloads/s");
+        report.record(scenario, "meanPollTime", PerformanceReport.millis(pollTime) / polls, "ms");
+    }
+
+    @After
+    public void removeProject() throws Exception {
+        poller.close();
+        getAdmin().deleteProject(projectId, true);
+    }
+
+    @AfterClass
+    public static void writeReport() throws Exception {
+        report.write();
+    }
+}
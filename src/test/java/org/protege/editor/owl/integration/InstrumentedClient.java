@@ -0,0 +1,85 @@
+package org.protege.editor.owl.integration;
+
+import org.protege.editor.owl.client.api.Client;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Optional;
+
+/**
+ * A {@link Client} decorator that records the latency, the payload size and the failures of
+ * every operation in {@link ClientMetrics}. The decorator is a dynamic proxy so that it covers
+ * all the operations of the client API without having to follow its changes.
+ */
+final class InstrumentedClient implements InvocationHandler {
+
+    private final Client delegate;
+
+    private final ClientMetrics metrics;
+
+    private InstrumentedClient(Client delegate, ClientMetrics metrics) {
+        this.delegate = delegate;
+        this.metrics = metrics;
+    }
+
+    /**
+     * Returns a proxy of the given client. The proxy only implements {@link Client}, so it
+     * cannot be cast to the class of the delegate, e.g., to <code>LocalClient</code>.
+     */
+    static Client wrap(Client delegate, ClientMetrics metrics) {
+        return (Client) Proxy.newProxyInstance(Client.class.getClassLoader(),
+                new Class<?>[] { Client.class }, new InstrumentedClient(delegate, metrics));
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        if (method.getDeclaringClass() == Object.class) {
+            return method.invoke(delegate, args);
+        }
+        long start = System.nanoTime();
+        Object result = null;
+        boolean failed = false;
+        try {
+            result = method.invoke(delegate, args);
+            return result;
+        }
+        catch (InvocationTargetException e) {
+            failed = true;
+            throw e.getCause();
+        }
+        finally {
+            long elapsed = System.nanoTime() - start;
+            long payload = metrics.isRecordingPayloadSizes() ? payloadSize(args, result) : -1;
+            metrics.record(method.getName(), elapsed, payload, failed);
+        }
+    }
+
+    private static long payloadSize(Object[] args, Object result) {
+        long size = serializedSize(result);
+        if (args != null) {
+            for (Object arg : args) {
+                size += serializedSize(arg);
+            }
+        }
+        return size;
+    }
+
+    private static long serializedSize(Object object) {
+        if (object instanceof Optional) {
+            return serializedSize(((Optional<?>) object).orElse(null)); // Optional is not serializable
+        }
+        if (!(object instanceof Serializable)) {
+            return 0;
+        }
+        try {
+            return PerformanceReport.serializedSize(object);
+        }
+        catch (IOException e) {
+            return 0; // not part of the RMI payload
+        }
+    }
+}
@@ -0,0 +1,174 @@
+package org.protege.editor.owl.integration;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+import static org.semanticweb.owlapi.apibinding.OWLFunctionalSyntaxFactory.Class;
+import static org.semanticweb.owlapi.apibinding.OWLFunctionalSyntaxFactory.IRI;
+
+import org.protege.editor.owl.client.util.ChangeUtils;
+import org.protege.editor.owl.client.util.ClientUtils;
+import org.protege.editor.owl.server.api.CommitBundle;
+import org.protege.editor.owl.server.policy.CommitBundleImpl;
+import org.protege.editor.owl.server.versioning.Commit;
+import org.protege.editor.owl.server.versioning.api.ChangeHistory;
+import org.protege.editor.owl.server.versioning.api.DocumentRevision;
+import org.protege.editor.owl.server.versioning.api.VersionedOWLOntology;
+
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.change.OWLOntologyChangeData;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyChange;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import edu.stanford.protege.metaproject.api.ProjectId;
+
+/**
+ * Opens a large synthetic project with a history of many revisions once with the complete
+ * change history in memory and once with the history spilled to a {@link RevisionStore},
+ * and compares the heap retained by both. The history queries of the store must return the
+ * same changes as the server, also after a commit and after the loaded revisions were
+ * evicted. Only the retained heap is compared: the complete history is in memory while it is
+ * spilled, so the peak heap of opening the project does not change.
+ * <p>
+ * The size of the ontology can be set with <code>-Dlean.axioms=100000</code> and the number
+ * of revisions with <code>-Dlean.revisions=100</code>.
+ */
+public class LeanHistoryIT extends BaseTest {
+
+    private static final OWLClass DOMAIN_CONCEPT = Class(IRI(SyntheticPizzaOntology.ONTOLOGY_ID + "#", "DomainConcept"));
+
+    private static final int NUMBER_OF_AXIOMS = Integer.getInteger("lean.axioms", 100000);
+    private static final int NUMBER_OF_REVISIONS = Integer.getInteger("lean.revisions", 100);
+
+    private static final PerformanceReport report = new PerformanceReport("lean-history");
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private ProjectId projectId;
+
+    @Before
+    public void createProject() throws Exception {
+        projectId = f.getProjectId("synthetic-" + NUMBER_OF_AXIOMS + "-" + System.currentTimeMillis());
+        OWLOntology ontology = SyntheticPizzaOntology.generate(OWLManager.createOWLOntologyManager(), NUMBER_OF_AXIOMS);
+        List<OWLOntologyChange> changes = ClientUtils.getUncommittedChanges(ontology);
+        Commit initialCommit = ClientUtils.createCommit(getAdmin(), "First commit", changes);
+        CommitBundle commitBundle = new CommitBundleImpl(R0, initialCommit);
+        getAdmin().createProject(projectId, f.getName("Synthetic Pizza Project"), f.getDescription("Lean history"),
+                f.getUserId("root"), Optional.empty(), Optional.of(commitBundle));
+
+        VersionedOWLOntology vont = ClientUtils.buildVersionedOntology(getAdmin().openProject(projectId),
+                OWLManager.createOWLOntologyManager());
+        HistoryBuilder.appendRevisions(getAdmin(), projectId, vont, DOMAIN_CONCEPT, NUMBER_OF_REVISIONS - 1);
+    }
+
+    @Test
+    public void shouldRetainLessHeapWithSpilledHistory() throws Exception {
+        long fullHeap = retainedHeapOfFullHistory();
+
+        /*
+         * Only the head ontology and the revision offsets in memory
+         */
+        long heapBefore = PerformanceReport.usedHeap();
+        VersionedOWLOntology leanVont = RevisionStore.openProject(getAdmin().openProject(projectId),
+                OWLManager.createOWLOntologyManager(), folder.newFile("history"));
+        long leanHeap = PerformanceReport.usedHeap() - heapBefore;
+        try (RevisionStore store = (RevisionStore) leanVont.getChangeHistory()) {
+            String scenario = NUMBER_OF_AXIOMS + " axioms, " + NUMBER_OF_REVISIONS + " revisions";
+            report.record(scenario, "fullHistoryHeap", PerformanceReport.megabytes(fullHeap), "MB");
+            report.record(scenario, "leanHistoryHeap", PerformanceReport.megabytes(leanHeap), "MB");
+            report.record(scenario, "heapSaving", (double) fullHeap / leanHeap, "x");
+
+            // Assert the lean mode retains less heap and still answers history queries
+            assertThat(leanHeap, is(lessThan(fullHeap)));
+            OWLOntology ontology = leanVont.getOntology();
+            ChangeHistory changeHistory = leanVont.getChangeHistory();
+            assertThat(ontology.getAxiomCount(), is(NUMBER_OF_AXIOMS + 2 * (NUMBER_OF_REVISIONS - 1)));
+            assertThat(leanVont.getHeadRevision(), is(DocumentRevision.create(NUMBER_OF_REVISIONS)));
+            assertThat(changeHistory.getRevisions().size(), is(NUMBER_OF_REVISIONS));
+            assertThat(changeHistory.getMetadata().size(), is(NUMBER_OF_REVISIONS));
+            assertThat(store.getLoadCount(), is(0));
+
+            ChangeHistory changeHistoryFromServer = ChangeUtils.getAllChanges(getAdmin().openProject(projectId));
+            for (int i = 1; i <= NUMBER_OF_REVISIONS; i++) {
+                DocumentRevision revision = DocumentRevision.create(i);
+                assertThat(changeData(changeHistory.getChangesForRevision(revision)),
+                        is(changeData(changeHistoryFromServer.getChangesForRevision(revision))));
+            }
+            assertThat(changeHistory.getChangesForRevision(R1).get(0).getOntology(), is(ontology));
+
+            // Assert a commit is appended to the store
+            HistoryBuilder.appendRevisions(getAdmin(), projectId, leanVont, DOMAIN_CONCEPT, 1);
+            DocumentRevision committed = DocumentRevision.create(NUMBER_OF_REVISIONS + 1);
+            changeHistoryFromServer = ChangeUtils.getAllChanges(getAdmin().openProject(projectId));
+            assertThat(changeHistory.getHeadRevision(), is(committed));
+            assertThat(changeData(changeHistory.getChangesForRevision(committed)),
+                    is(changeData(changeHistoryFromServer.getChangesForRevision(committed))));
+        }
+    }
+
+    /*
+     * Returns the heap retained by the project opened with the complete change history in
+     * memory, which is released on return
+     */
+    private long retainedHeapOfFullHistory() throws Exception {
+        long heapBefore = PerformanceReport.usedHeap();
+        VersionedOWLOntology vont = ClientUtils.buildVersionedOntology(getAdmin().openProject(projectId),
+                OWLManager.createOWLOntologyManager());
+        long fullHeap = PerformanceReport.usedHeap() - heapBefore;
+        assertThat(vont.getHeadRevision(), is(DocumentRevision.create(NUMBER_OF_REVISIONS)));
+        return fullHeap;
+    }
+
+    @Test
+    public void shouldReloadEvictedRevisions() throws Exception {
+        ChangeHistory changeHistoryFromServer = ChangeUtils.getAllChanges(getAdmin().openProject(projectId));
+        OWLOntology ontology = OWLManager.createOWLOntologyManager().createOntology();
+        try (RevisionStore store = RevisionStore.spill(changeHistoryFromServer, ontology, folder.newFile("history"))) {
+            for (int i = 1; i <= NUMBER_OF_REVISIONS; i++) {
+                store.getChangesForRevision(DocumentRevision.create(i));
+            }
+            store.getChangesForRevision(R1);
+            assertThat(store.getLoadCount(), is(NUMBER_OF_REVISIONS));
+
+            store.evictLoadedRevisions();
+
+            // Assert every evicted revision is read from the history file again, unchanged
+            for (int i = 1; i <= NUMBER_OF_REVISIONS; i++) {
+                DocumentRevision revision = DocumentRevision.create(i);
+                assertThat(changeData(store.getChangesForRevision(revision)),
+                        is(changeData(changeHistoryFromServer.getChangesForRevision(revision))));
+            }
+            assertThat(store.getLoadCount(), is(2 * NUMBER_OF_REVISIONS));
+        }
+    }
+
+    private static List<OWLOntologyChangeData> changeData(List<OWLOntologyChange> changes) {
+        List<OWLOntologyChangeData> changeData = new ArrayList<>();
+        for (OWLOntologyChange change : changes) {
+            changeData.add(change.getChangeData());
+        }
+        return changeData;
+    }
+
+    @After
+    public void removeProject() throws Exception {
+        getAdmin().deleteProject(projectId, true);
+    }
+
+    @AfterClass
+    public static void writeReport() throws Exception {
+        report.write();
+    }
+}
@@ -0,0 +1,98 @@
+package org.protege.editor.owl.integration;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+import org.protege.editor.owl.client.LocalClient;
+import org.protege.editor.owl.client.api.Client;
+import org.protege.editor.owl.client.util.ClientUtils;
+import org.protege.editor.owl.server.api.CommitBundle;
+import org.protege.editor.owl.server.policy.CommitBundleImpl;
+import org.protege.editor.owl.server.transport.rmi.RemoteLoginService;
+import org.protege.editor.owl.server.versioning.Commit;
+import org.protege.editor.owl.server.versioning.api.VersionedOWLOntology;
+
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.Test;
+import org.semanticweb.owlapi.model.OWLOntologyChange;
+
+import java.util.List;
+import java.util.Optional;
+
+import edu.stanford.protege.metaproject.api.AuthToken;
+import edu.stanford.protege.metaproject.api.PlainPassword;
+import edu.stanford.protege.metaproject.api.ProjectId;
+import edu.stanford.protege.metaproject.api.UserId;
+
+/**
+ * Compares creating many short-lived guest clients with a full registry lookup and
+ * authentication each time against creating them through the {@link SessionPool}, and checks
+ * that clients from the pool are fully functional. Both kinds of clients are wrapped in an
+ * {@link InstrumentedClient}, so the comparison includes the same decoration cost.
+ * <p>
+ * The number of clients can be changed with <code>-Dlogin.clients=...</code>.
+ */
+public class LoginPoolIT extends BaseTest {
+
+    private static final int NUMBER_OF_CLIENTS = Integer.getInteger("login.clients", 1000);
+
+    private static final PerformanceReport report = new PerformanceReport("login-pool");
+
+    private ProjectId projectId;
+
+    @Before
+    public void createProject() throws Exception {
+        projectId = f.getProjectId("pizza-" + System.currentTimeMillis()); // currentTimeMilis() for uniqueness
+        List<OWLOntologyChange> changes = PizzaOntology.getInitialChanges();
+        Commit initialCommit = ClientUtils.createCommit(getAdmin(), "First commit", changes);
+        CommitBundle commitBundle = new CommitBundleImpl(R0, initialCommit);
+        getAdmin().createProject(projectId, f.getName("Pizza Project"), f.getDescription("Login pool"),
+                f.getUserId("root"), Optional.empty(), Optional.of(commitBundle));
+    }
+
+    @Test
+    public void shouldAmortizeLoginAcrossClients() throws Exception {
+        UserId guestId = f.getUserId("guest");
+        PlainPassword guestPassword = f.getPlainPassword("guestpwd");
+
+        ClientMetrics metrics = new ClientMetrics(false);
+        SessionPool pool = new SessionPool();
+
+        long start = System.nanoTime();
+        for (int i = 0; i < NUMBER_OF_CLIENTS; i++) {
+            RemoteLoginService loginService = SessionPool.lookupLoginService(SERVER_ADDRESS, REGISTRY_PORT);
+            AuthToken authToken = SessionPool.authenticate(loginService, guestId, guestPassword);
+            InstrumentedClient.wrap(new LocalClient(authToken, SERVER_ADDRESS, REGISTRY_PORT), metrics);
+        }
+        long freshLogins = System.nanoTime() - start;
+
+        Client guest = null;
+        start = System.nanoTime();
+        for (int i = 0; i < NUMBER_OF_CLIENTS; i++) {
+            guest = InstrumentedClient.wrap(pool.login(SERVER_ADDRESS, REGISTRY_PORT, guestId, guestPassword), metrics);
+        }
+        long pooledLogins = System.nanoTime() - start;
+
+        String scenario = NUMBER_OF_CLIENTS + " clients";
+        report.record(scenario, "freshLogin", PerformanceReport.millis(freshLogins) / NUMBER_OF_CLIENTS, "ms/client");
+        report.record(scenario, "pooledLogin", PerformanceReport.millis(pooledLogins) / NUMBER_OF_CLIENTS, "ms/client");
+        report.record(scenario, "speedup", (double) freshLogins / pooledLogins, "x");
+
+        // Assert a pooled client can still work with the server
+        VersionedOWLOntology vont = ClientUtils.buildVersionedOntology(guest.openProject(projectId), owlManager);
+        assertThat(vont.getHeadRevision(), is(R1));
+        assertThat(vont.getChangeHistory().getChangesForRevision(R1).size(), is(945));
+    }
+
+    @After
+    public void removeProject() throws Exception {
+        getAdmin().deleteProject(projectId, true);
+    }
+
+    @AfterClass
+    public static void writeReport() throws Exception {
+        report.write();
+    }
+}
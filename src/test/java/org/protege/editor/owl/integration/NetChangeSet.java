@@ -0,0 +1,81 @@
+package org.protege.editor.owl.integration;
+
+import org.semanticweb.owlapi.model.AddImport;
+import org.semanticweb.owlapi.model.AddOntologyAnnotation;
+import org.semanticweb.owlapi.model.AnnotationChange;
+import org.semanticweb.owlapi.model.ImportChange;
+import org.semanticweb.owlapi.model.OWLOntologyChange;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Accumulates a sequence of ontology changes into their net effect. Changes are keyed by the
+ * item they change (an axiom, an import declaration, an ontology annotation or the ontology
+ * id); an addition and a later removal of the same item, or vice versa, cancel each other
+ * out, and of two changes of the ontology id only the last one is kept.
+ */
+final class NetChangeSet {
+
+    private static final Object ONTOLOGY_ID = new Object();
+
+    /*
+     * Net changes keyed by the changed item, in the order they were first applied
+     */
+    private final Map<Object, OWLOntologyChange> netChanges = new LinkedHashMap<>();
+
+    void add(OWLOntologyChange change) {
+        Object item = getChangedItem(change);
+        OWLOntologyChange netChange = netChanges.get(item);
+        if (netChange != null && isAddition(netChange) != isAddition(change)) {
+            netChanges.remove(item); // the two changes cancel out
+        }
+        else if (netChange == null || !isAddition(change)) {
+            netChanges.put(item, change);
+        }
+    }
+
+    void addAll(List<OWLOntologyChange> changes) {
+        for (OWLOntologyChange change : changes) {
+            add(change);
+        }
+    }
+
+    /**
+     * Returns the net changes in the order they were first applied.
+     */
+    List<OWLOntologyChange> getChanges() {
+        return new ArrayList<>(netChanges.values());
+    }
+
+    int size() {
+        return netChanges.size();
+    }
+
+    void clear() {
+        netChanges.clear();
+    }
+
+    /**
+     * Returns the item the change changes, which identifies the changes that cancel or
+     * conflict with each other.
+     */
+    static Object getChangedItem(OWLOntologyChange change) {
+        if (change.isAxiomChange()) {
+            return change.getAxiom();
+        }
+        if (change instanceof ImportChange) {
+            return ((ImportChange) change).getImportDeclaration();
+        }
+        if (change instanceof AnnotationChange) {
+            return ((AnnotationChange) change).getAnnotation();
+        }
+        return ONTOLOGY_ID;
+    }
+
+    private static boolean isAddition(OWLOntologyChange change) {
+        return change.isAddAxiom() || change instanceof AddImport || change instanceof AddOntologyAnnotation;
+    }
+}
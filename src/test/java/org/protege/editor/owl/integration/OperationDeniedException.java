@@ -0,0 +1,14 @@
+package org.protege.editor.owl.integration;
+
+/**
+ * Thrown when the client-side permission check rejects a change before it is sent to the
+ * server. The message has the same form as the one of the server-side rejection.
+ */
+class OperationDeniedException extends Exception {
+
+    private static final long serialVersionUID = -1429583625461512236L;
+
+    OperationDeniedException(String message) {
+        super(message);
+    }
+}
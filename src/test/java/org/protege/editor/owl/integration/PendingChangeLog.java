@@ -0,0 +1,83 @@
+package org.protege.editor.owl.integration;
+
+import org.protege.editor.owl.server.versioning.api.ChangeHistory;
+import org.protege.editor.owl.server.versioning.api.VersionedOWLOntology;
+
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyChange;
+import org.semanticweb.owlapi.model.OWLOntologyChangeListener;
+
+import java.util.List;
+
+/**
+ * Records the uncommitted edits of a versioned ontology as they are applied, so that a commit
+ * can be prepared in time proportional to the number of edits instead of diffing the whole
+ * ontology against its history with {@link org.protege.editor.owl.client.util.ClientUtils#getUncommittedChanges}.
+ * <p>
+ * Edits that cancel each other out, e.g., adding an axiom and removing it again, are collapsed
+ * so that neither of them is committed.
+ */
+final class PendingChangeLog implements OWLOntologyChangeListener {
+
+    private final VersionedOWLOntology vont;
+
+    private final NetChangeSet pendingChanges = new NetChangeSet();
+
+    private boolean recording = true;
+
+    private PendingChangeLog(VersionedOWLOntology vont) {
+        this.vont = vont;
+    }
+
+    /**
+     * Starts recording the edits of the working ontology of the given versioned ontology.
+     */
+    static PendingChangeLog attach(VersionedOWLOntology vont) {
+        PendingChangeLog changeLog = new PendingChangeLog(vont);
+        vont.getOntology().getOWLOntologyManager().addOntologyChangeListener(changeLog);
+        return changeLog;
+    }
+
+    void detach() {
+        vont.getOntology().getOWLOntologyManager().removeOntologyChangeListener(this);
+    }
+
+    @Override
+    public synchronized void ontologiesChanged(List<? extends OWLOntologyChange> changes) {
+        if (!recording) {
+            return;
+        }
+        OWLOntology workingOntology = vont.getOntology();
+        for (OWLOntologyChange change : changes) {
+            if (change.getOntology().equals(workingOntology)) {
+                pendingChanges.add(change);
+            }
+        }
+    }
+
+    /**
+     * Returns the net uncommitted changes in the order they were applied.
+     */
+    synchronized List<OWLOntologyChange> getChanges() {
+        return pendingChanges.getChanges();
+    }
+
+    synchronized int size() {
+        return pendingChanges.size();
+    }
+
+    /**
+     * Applies the changes approved by the server to the local history and clears the log.
+     * The ontology edits made by the update itself are not recorded.
+     */
+    synchronized void update(ChangeHistory approvedChanges) throws Exception {
+        recording = false;
+        try {
+            vont.update(approvedChanges);
+        }
+        finally {
+            recording = true;
+        }
+        pendingChanges.clear();
+    }
+}
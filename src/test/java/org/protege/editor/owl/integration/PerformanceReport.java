@@ -0,0 +1,98 @@
+package org.protege.editor.owl.integration;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.PrintWriter;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Collects the measurements of a performance test and writes them as CSV to
+ * <code>target/performance/&lt;name&gt;.csv</code> so they can be compared across runs.
+ */
+class PerformanceReport {
+
+    private static final File REPORT_DIR = new File("target/performance");
+
+    private final String name;
+
+    private final List<String> rows = new ArrayList<>();
+
+    PerformanceReport(String name) {
+        this.name = name;
+    }
+
+    synchronized void record(String scenario, String metric, double value, String unit) {
+        String row = String.format(Locale.ROOT, "%s,%s,%.3f,%s", scenario, metric, value, unit);
+        rows.add(row);
+    }
+
+    synchronized void write() throws IOException {
+        REPORT_DIR.mkdirs();
+        try (PrintWriter writer = new PrintWriter(new File(REPORT_DIR, name + ".csv"), "UTF-8")) {
+            writer.println("scenario,metric,value,unit");
+            for (String row : rows) {
+                writer.println(row);
+            }
+        }
+    }
+
+    static double millis(long nanos) {
+        return nanos / 1e6;
+    }
+
+    static double megabytes(long bytes) {
+        return bytes / (1024.0 * 1024.0);
+    }
+
+    /**
+     * Returns the number of bytes of the Java serialization of the given object, which is the
+     * payload RMI sends over the wire when the object is a parameter or a return value.
+     */
+    static long serializedSize(Object object) throws IOException {
+        CountingOutputStream counter = new CountingOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(counter)) {
+            out.writeObject(object);
+        }
+        return counter.getCount();
+    }
+
+    /**
+     * Returns the heap in use after a best-effort garbage collection, i.e., an approximation
+     * of the retained heap.
+     */
+    static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    static void resetPeakHeap() {
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                pool.resetPeakUsage();
+            }
+        }
+    }
+
+    /**
+     * Returns the sum of the peak usage of all heap pools since the last {@link #resetPeakHeap()}.
+     * The pools peak at different times, so the sum is an upper bound of the actual peak heap.
+     */
+    static long peakHeapUpperBound() {
+        long peak = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                peak += pool.getPeakUsage().getUsed();
+            }
+        }
+        return peak;
+    }
+}
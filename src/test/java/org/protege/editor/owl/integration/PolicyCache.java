@@ -0,0 +1,40 @@
+package org.protege.editor.owl.integration;
+
+import org.protege.editor.owl.client.api.Client;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import edu.stanford.protege.metaproject.api.ProjectId;
+import edu.stanford.protege.metaproject.api.UserId;
+
+/**
+ * Keeps the {@link PolicySnapshot} of a user per project, read from the server through the
+ * given client, until it is invalidated, e.g., after the server rejected an operation the
+ * snapshot allowed because the policy changed.
+ */
+final class PolicyCache {
+
+    private final Client client;
+    private final UserId userId;
+
+    private final Map<ProjectId, PolicySnapshot> snapshots = new HashMap<>();
+
+    PolicyCache(Client client, UserId userId) {
+        this.client = client;
+        this.userId = userId;
+    }
+
+    synchronized PolicySnapshot get(ProjectId projectId) throws Exception {
+        PolicySnapshot snapshot = snapshots.get(projectId);
+        if (snapshot == null) {
+            snapshot = PolicySnapshot.load(client, userId, projectId);
+            snapshots.put(projectId, snapshot);
+        }
+        return snapshot;
+    }
+
+    synchronized void invalidate() {
+        snapshots.clear();
+    }
+}
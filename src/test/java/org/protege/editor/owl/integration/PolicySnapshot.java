@@ -0,0 +1,108 @@
+package org.protege.editor.owl.integration;
+
+import org.protege.editor.owl.client.api.Client;
+
+import org.semanticweb.owlapi.model.AddAxiom;
+import org.semanticweb.owlapi.model.AddImport;
+import org.semanticweb.owlapi.model.AddOntologyAnnotation;
+import org.semanticweb.owlapi.model.OWLOntologyChange;
+import org.semanticweb.owlapi.model.RemoveAxiom;
+import org.semanticweb.owlapi.model.RemoveImport;
+import org.semanticweb.owlapi.model.RemoveOntologyAnnotation;
+import org.semanticweb.owlapi.model.SetOntologyID;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import edu.stanford.protege.metaproject.api.GlobalPermissions;
+import edu.stanford.protege.metaproject.api.Operation;
+import edu.stanford.protege.metaproject.api.ProjectId;
+import edu.stanford.protege.metaproject.api.UserId;
+
+/**
+ * The operations a user may perform on a project, as the metaproject of the server grants
+ * them through the user's roles on that project and on all projects. It lets the client
+ * reject a commit with disallowed change types before the commit bundle is serialized and
+ * sent to the server.
+ */
+final class PolicySnapshot {
+
+    private static final Map<Class<? extends OWLOntologyChange>, String> REQUIRED_OPERATIONS = new HashMap<>();
+    static {
+        REQUIRED_OPERATIONS.put(AddAxiom.class, "add-axiom");
+        REQUIRED_OPERATIONS.put(RemoveAxiom.class, "remove-axiom");
+        REQUIRED_OPERATIONS.put(AddImport.class, "add-import");
+        REQUIRED_OPERATIONS.put(RemoveImport.class, "remove-import");
+        REQUIRED_OPERATIONS.put(AddOntologyAnnotation.class, "add-ontology-annotation");
+        REQUIRED_OPERATIONS.put(RemoveOntologyAnnotation.class, "remove-ontology-annotation");
+        REQUIRED_OPERATIONS.put(SetOntologyID.class, "modify-ontology-iri");
+    }
+
+    private final Set<String> allowedOperations;
+    private final Map<String, String> operationNames;
+
+    PolicySnapshot(Set<String> allowedOperations, Map<String, String> operationNames) {
+        this.allowedOperations = allowedOperations;
+        this.operationNames = operationNames;
+    }
+
+    /**
+     * Reads the operations the given user may perform on the given project from the server
+     * the client is connected to.
+     */
+    static PolicySnapshot load(Client client, UserId userId, ProjectId projectId) throws Exception {
+        Set<String> allowedOperations = new HashSet<>();
+        for (Operation operation : client.getOperations(userId, projectId, GlobalPermissions.INCLUDED)) {
+            allowedOperations.add(operation.getId().get());
+        }
+        Map<String, String> operationNames = new HashMap<>();
+        for (Operation operation : client.getAllOperations()) {
+            operationNames.put(operation.getId().get(), operation.getName().get());
+        }
+        return new PolicySnapshot(allowedOperations, operationNames);
+    }
+
+    /**
+     * Returns the ids of the operations the user may perform on the project.
+     */
+    Set<String> getAllowedOperations() {
+        return Collections.unmodifiableSet(allowedOperations);
+    }
+
+    /**
+     * Checks that the user may perform every type of change in the list.
+     *
+     * @throws OperationDeniedException
+     *          If at least one of the changes requires an operation the user is not allowed to do
+     */
+    void checkPermission(List<OWLOntologyChange> changes) throws OperationDeniedException {
+        Set<String> requiredOperations = new LinkedHashSet<>();
+        for (OWLOntologyChange change : changes) {
+            String operation = REQUIRED_OPERATIONS.get(change.getClass());
+            if (operation != null) { // other change types are left to the server
+                requiredOperations.add(operation);
+            }
+        }
+        for (String operation : requiredOperations) {
+            checkOperation(operation);
+        }
+    }
+
+    /**
+     * Checks that the user may perform the given operation on the project.
+     *
+     * @throws OperationDeniedException
+     *          If the user is not allowed to do the operation
+     */
+    void checkOperation(String operation) throws OperationDeniedException {
+        if (!allowedOperations.contains(operation)) {
+            String operationName = operationNames.getOrDefault(operation, operation);
+            throw new OperationDeniedException("User has no permission for '" + operationName + "' operation");
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package org.protege.editor.owl.integration;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.semanticweb.owlapi.apibinding.OWLFunctionalSyntaxFactory.Class;
+import static org.semanticweb.owlapi.apibinding.OWLFunctionalSyntaxFactory.Declaration;
+import static org.semanticweb.owlapi.apibinding.OWLFunctionalSyntaxFactory.IRI;
+
+import org.protege.editor.owl.client.api.Client;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.AddAxiom;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyChange;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import edu.stanford.protege.metaproject.Manager;
+import edu.stanford.protege.metaproject.api.GlobalPermissions;
+import edu.stanford.protege.metaproject.api.MetaprojectFactory;
+import edu.stanford.protege.metaproject.api.Operation;
+import edu.stanford.protege.metaproject.api.ProjectId;
+import edu.stanford.protege.metaproject.api.UserId;
+
+/**
+ * Checks the client-side permission check against the operations the server grants a user
+ * and that an invalidated policy is read from the server again. The server is replaced by
+ * a mock client, so the test does not need one.
+ */
+public class PolicySnapshotTest {
+
+    private static final MetaprojectFactory f = Manager.getFactory();
+
+    private static final UserId GUEST = f.getUserId("guest");
+    private static final UserId ROOT = f.getUserId("root");
+    private static final ProjectId PROJECT = f.getProjectId("pizza");
+
+    private static final Operation ADD_AXIOM = operation("add-axiom", "Add axiom");
+    private static final Operation OPEN_PROJECT = operation("open-project", "Open project");
+
+    @Rule
+    public ExpectedException thrown = ExpectedException.none();
+
+    private Client client;
+
+    private List<OWLOntologyChange> additions;
+
+    @Before
+    public void mockServer() throws Exception {
+        client = mock(Client.class);
+        when(client.getAllOperations()).thenReturn(Arrays.asList(ADD_AXIOM, OPEN_PROJECT));
+        when(client.getOperations(ROOT, PROJECT, GlobalPermissions.INCLUDED)).thenReturn(Arrays.asList(ADD_AXIOM, OPEN_PROJECT));
+        when(client.getOperations(GUEST, PROJECT, GlobalPermissions.INCLUDED)).thenReturn(Collections.singletonList(OPEN_PROJECT));
+        OWLOntology ontology = OWLManager.createOWLOntologyManager().createOntology();
+        additions = Collections.singletonList(
+                new AddAxiom(ontology, Declaration(Class(IRI(BaseTest.PizzaOntology.getId() + "#", "Customer")))));
+    }
+
+    @Test
+    public void shouldAllowOperationsOfUser() throws Exception {
+        PolicySnapshot rootPolicy = new PolicyCache(client, ROOT).get(PROJECT);
+        PolicySnapshot guestPolicy = new PolicyCache(client, GUEST).get(PROJECT);
+        assertThat(rootPolicy.getAllowedOperations(), hasItem("add-axiom"));
+        assertThat(guestPolicy.getAllowedOperations(), hasItem("open-project"));
+        assertThat(guestPolicy.getAllowedOperations(), not(hasItem("add-axiom")));
+        rootPolicy.checkPermission(additions);
+    }
+
+    @Test
+    public void shouldRejectDisallowedChange() throws Exception {
+        thrown.expect(OperationDeniedException.class);
+        thrown.expectMessage("User has no permission for 'Add axiom' operation");
+        new PolicyCache(client, GUEST).get(PROJECT).checkPermission(additions);
+    }
+
+    @Test
+    public void shouldReloadInvalidatedPolicy() throws Exception {
+        PolicyCache cache = new PolicyCache(client, GUEST);
+        assertThat(cache.get(PROJECT).getAllowedOperations(), not(hasItem("add-axiom")));
+
+        when(client.getOperations(GUEST, PROJECT, GlobalPermissions.INCLUDED)).thenReturn(Arrays.asList(ADD_AXIOM, OPEN_PROJECT));
+        assertThat(cache.get(PROJECT).getAllowedOperations(), not(hasItem("add-axiom")));
+
+        cache.invalidate();
+        PolicySnapshot policy = cache.get(PROJECT);
+
+        assertThat(policy.getAllowedOperations().contains("add-axiom"), is(true));
+        policy.checkPermission(additions);
+        verify(client, times(2)).getOperations(GUEST, PROJECT, GlobalPermissions.INCLUDED);
+    }
+
+    private static Operation operation(String id, String name) {
+        Operation operation = mock(Operation.class);
+        when(operation.getId()).thenReturn(f.getOperationId(id));
+        when(operation.getName()).thenReturn(f.getName(name));
+        return operation;
+    }
+}
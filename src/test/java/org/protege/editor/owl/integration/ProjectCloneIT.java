@@ -0,0 +1,149 @@
+package org.protege.editor.owl.integration;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.semanticweb.owlapi.apibinding.OWLFunctionalSyntaxFactory.Class;
+import static org.semanticweb.owlapi.apibinding.OWLFunctionalSyntaxFactory.IRI;
+import static org.semanticweb.owlapi.apibinding.OWLFunctionalSyntaxFactory.SubClassOf;
+
+import org.protege.editor.owl.client.util.ClientUtils;
+import org.protege.editor.owl.server.api.CommitBundle;
+import org.protege.editor.owl.server.policy.CommitBundleImpl;
+import org.protege.editor.owl.server.versioning.Commit;
+import org.protege.editor.owl.server.versioning.api.DocumentRevision;
+import org.protege.editor.owl.server.versioning.api.VersionedOWLOntology;
+
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.Test;
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.AddAxiom;
+import org.semanticweb.owlapi.model.OWLAxiom;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyChange;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import edu.stanford.protege.metaproject.api.ProjectId;
+
+/**
+ * Clones a pizza project and a large synthetic project with a {@link ProjectCloner} and checks
+ * that a clone opens like any other project with the source ontology at the cloned revision,
+ * and that later commits to the clone do not reach the source project. The time to clone
+ * and the history files of both projects are reported.
+ * <p>
+ * The size of the large project can be set with <code>-Dclone.axioms=100000</code>.
+ */
+public class ProjectCloneIT extends BaseTest {
+
+    private static final OWLClass DOMAIN_CONCEPT = Class(IRI(PizzaOntology.getId() + "#", "DomainConcept"));
+
+    private static final int NUMBER_OF_AXIOMS = Integer.getInteger("clone.axioms", 100000);
+
+    private static final PerformanceReport report = new PerformanceReport("project-clone");
+
+    private final List<ProjectId> projectIds = new ArrayList<>();
+
+    private ProjectId pizzaId;
+    private ProjectId syntheticId;
+    private OWLOntology syntheticOntology;
+
+    private ProjectCloner cloner;
+
+    @Before
+    public void createProjects() throws Exception {
+        long suffix = System.currentTimeMillis(); // currentTimeMilis() for uniqueness
+        pizzaId = createProject("pizza-" + suffix, PizzaOntology.getInitialChanges());
+        syntheticOntology = SyntheticPizzaOntology.generate(OWLManager.createOWLOntologyManager(), NUMBER_OF_AXIOMS);
+        syntheticId = createProject("synthetic-" + NUMBER_OF_AXIOMS + "-" + suffix,
+                ClientUtils.getUncommittedChanges(syntheticOntology));
+        cloner = new ProjectCloner(getAdmin(), f.getUserId("root"));
+    }
+
+    private ProjectId createProject(String id, List<OWLOntologyChange> changes) throws Exception {
+        ProjectId projectId = f.getProjectId(id);
+        Commit initialCommit = ClientUtils.createCommit(getAdmin(), "First commit", changes);
+        CommitBundle commitBundle = new CommitBundleImpl(R0, initialCommit);
+        getAdmin().createProject(projectId, f.getName("Clone source"), f.getDescription("Project clone"),
+                f.getUserId("root"), Optional.empty(), Optional.of(commitBundle));
+        projectIds.add(projectId);
+        return projectId;
+    }
+
+    @Test
+    public void shouldOpenCloneAtSourceRevision() throws Exception {
+        VersionedOWLOntology vont = ClientUtils.buildVersionedOntology(getAdmin().openProject(pizzaId), owlManager);
+        Set<OWLAxiom> axiomsAtR1 = new HashSet<>(vont.getOntology().getAxioms());
+        HistoryBuilder.appendRevisions(getAdmin(), pizzaId, vont, DOMAIN_CONCEPT, 1);
+
+        ProjectId cloneAtR1 = clone(pizzaId, R1, "-clone-r1");
+        ProjectId cloneAtR2 = clone(pizzaId, R2, "-clone-r2");
+
+        // Assert each clone opens normally with the source ontology at its revision
+        VersionedOWLOntology cloneR1 = openProject(cloneAtR1);
+        assertThat(cloneR1.getHeadRevision(), is(R1));
+        assertThat(cloneR1.getChangeHistory().getMetadata().get(R1).getComment(),
+                is("Clone of project " + pizzaId.get() + " at " + R1));
+        assertThat(cloneR1.getOntology().getAxioms(), is(axiomsAtR1));
+        assertThat(openProject(cloneAtR2).getOntology().getAxioms(), is(vont.getOntology().getAxioms()));
+    }
+
+    @Test
+    public void shouldKeepCommitsOfCloneApart() throws Exception {
+        long start = System.nanoTime();
+        ProjectId cloneId = clone(syntheticId, R1, "-clone");
+        long cloneTime = System.nanoTime() - start;
+
+        String scenario = NUMBER_OF_AXIOMS + " axioms";
+        report.record(scenario, "clone", PerformanceReport.millis(cloneTime), "ms");
+        report.record(scenario, "cloneHistoryFile", getAdmin().openProject(cloneId).getHistoryFile().length(), "bytes");
+        report.record(scenario, "sourceHistoryFile", getAdmin().openProject(syntheticId).getHistoryFile().length(), "bytes");
+
+        VersionedOWLOntology clone = openProject(cloneId);
+        assertThat(clone.getOntology().getAxioms(), is(syntheticOntology.getAxioms()));
+
+        OWLAxiom axiom = SubClassOf(Class(IRI(SyntheticPizzaOntology.ONTOLOGY_ID + "#", "CloneConcept")),
+                Class(IRI(SyntheticPizzaOntology.ONTOLOGY_ID + "#", "DomainConcept")));
+        List<OWLOntologyChange> changes = Collections.singletonList(new AddAxiom(clone.getOntology(), axiom));
+        Commit commit = ClientUtils.createCommit(getAdmin(), "Edit the clone", changes);
+        getAdmin().commit(cloneId, new CommitBundleImpl(R1, commit));
+
+        // Assert the commit is in the clone only
+        assertThat(openProject(cloneId).getOntology().getAxioms(), hasItem(axiom));
+        VersionedOWLOntology source = openProject(syntheticId);
+        assertThat(source.getHeadRevision(), is(R1));
+        assertThat(source.getOntology().getAxioms(), not(hasItem(axiom)));
+    }
+
+    private ProjectId clone(ProjectId sourceId, DocumentRevision sourceRevision, String suffix) throws Exception {
+        ProjectId cloneId = f.getProjectId(sourceId.get() + suffix);
+        cloner.clone(sourceId, sourceRevision, cloneId, f.getName("Clone"), f.getDescription("Project clone"));
+        projectIds.add(cloneId);
+        return cloneId;
+    }
+
+    private VersionedOWLOntology openProject(ProjectId projectId) throws Exception {
+        return ClientUtils.buildVersionedOntology(getAdmin().openProject(projectId), OWLManager.createOWLOntologyManager());
+    }
+
+    @After
+    public void removeProjects() throws Exception {
+        for (ProjectId projectId : projectIds) {
+            getAdmin().deleteProject(projectId, true);
+        }
+    }
+
+    @AfterClass
+    public static void writeReport() throws Exception {
+        report.write();
+    }
+}
@@ -0,0 +1,67 @@
+package org.protege.editor.owl.integration;
+
+import org.protege.editor.owl.client.api.Client;
+import org.protege.editor.owl.client.util.ChangeUtils;
+import org.protege.editor.owl.client.util.ClientUtils;
+import org.protege.editor.owl.server.policy.CommitBundleImpl;
+import org.protege.editor.owl.server.versioning.Commit;
+import org.protege.editor.owl.server.versioning.api.ChangeHistory;
+import org.protege.editor.owl.server.versioning.api.DocumentRevision;
+import org.protege.editor.owl.server.versioning.api.ServerDocument;
+
+import java.util.Optional;
+
+import edu.stanford.protege.metaproject.api.Description;
+import edu.stanford.protege.metaproject.api.Name;
+import edu.stanford.protege.metaproject.api.ProjectId;
+import edu.stanford.protege.metaproject.api.UserId;
+
+/**
+ * Clones a project at a revision without copying its history. A clone is a new project whose
+ * R1 holds the net changes of the revisions R1..Rn of the source project, i.e., the source
+ * ontology at Rn, so it opens like any other project and later commits to either project do
+ * not affect the other. The comment of R1 names the source project and revision.
+ * <p>
+ * The server has no operation that shares history storage between projects, so the ontology
+ * at the cloned revision is copied into the history of the clone: cloning reads the history
+ * of the source project, and its cost grows with the size of the source ontology, though
+ * not with the length of its history.
+ */
+final class ProjectCloner {
+
+    private final Client client;
+    private final UserId userId;
+
+    ProjectCloner(Client client, UserId userId) {
+        this.client = client;
+        this.userId = userId;
+    }
+
+    /**
+     * Creates the project <code>cloneId</code> as a clone of the project <code>sourceId</code>
+     * at the given revision.
+     */
+    ServerDocument clone(ProjectId sourceId, DocumentRevision sourceRevision, ProjectId cloneId, Name name,
+            Description description) throws Exception {
+        ChangeHistory sourceHistory = ChangeUtils.getAllChanges(client.openProject(sourceId));
+        int sourceRevisions = indexOf(sourceRevision, sourceHistory.getRevisions().size());
+
+        NetChangeSet netChanges = new NetChangeSet();
+        for (int i = 1; i <= sourceRevisions; i++) {
+            netChanges.addAll(sourceHistory.getChangesForRevision(DocumentRevision.create(i)));
+        }
+        String comment = "Clone of project " + sourceId.get() + " at " + sourceRevision;
+        Commit baseline = ClientUtils.createCommit(client, comment, netChanges.getChanges());
+        return client.createProject(cloneId, name, description, userId,
+                Optional.empty(), Optional.of(new CommitBundleImpl(DocumentRevision.START_REVISION, baseline)));
+    }
+
+    private static int indexOf(DocumentRevision revision, int headRevision) {
+        for (int i = 1; i <= headRevision; i++) {
+            if (DocumentRevision.create(i).equals(revision)) {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException("Cannot clone at " + revision + ", the head revision is R" + headRevision);
+    }
+}
@@ -0,0 +1,179 @@
+package org.protege.editor.owl.integration;
+
+import org.protege.editor.owl.client.util.ChangeUtils;
+import org.protege.editor.owl.server.versioning.VersionedOWLOntologyImpl;
+import org.protege.editor.owl.server.versioning.api.ChangeHistory;
+import org.protege.editor.owl.server.versioning.api.DocumentRevision;
+import org.protege.editor.owl.server.versioning.api.ServerDocument;
+import org.protege.editor.owl.server.versioning.api.VersionedOWLOntology;
+
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyChange;
+import org.semanticweb.owlapi.model.OWLOntologyCreationException;
+import org.semanticweb.owlapi.model.OWLOntologyManager;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import edu.stanford.protege.metaproject.api.ProjectId;
+
+/**
+ * A client-side cache of project histories on disk, so that a new editor session can open a
+ * project it opened before without reading the history from the server again. An entry holds
+ * the change history of a project together with the length and modification time of the
+ * history file of the server at the time it was read.
+ * <p>
+ * {@link #open} uses an entry only if the history file of the server still has that length
+ * and modification time, i.e., if no revision was committed since. Otherwise, or if the
+ * history file is not visible to the client, the complete history is read from the server
+ * and replaces the entry: the client API cannot ask the server for the revisions after a
+ * known one.
+ */
+final class ProjectHistoryCache {
+
+    private final File directory;
+
+    private int historyReads = 0;
+
+    ProjectHistoryCache(File directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * Opens the project of the given server document into a new ontology of the given
+     * manager, from the cache if the cached head is still the head of the server and from the
+     * server otherwise.
+     */
+    VersionedOWLOntology open(ProjectId projectId, ServerDocument serverDocument, OWLOntologyManager owlManager)
+            throws Exception {
+        HistoryStamp stamp = HistoryStamp.of(serverDocument.getHistoryFile());
+        File file = getFile(projectId);
+        ChangeHistory changeHistory = null;
+        if (stamp != null && file.isFile()) {
+            Entry entry = read(file);
+            if (entry.stamp.equals(stamp)) {
+                changeHistory = entry.changeHistory;
+            }
+        }
+        if (changeHistory == null) {
+            historyReads++;
+            changeHistory = ChangeUtils.getAllChanges(serverDocument);
+            if (stamp != null) {
+                write(file, new Entry(changeHistory, stamp));
+            }
+        }
+        return new VersionedOWLOntologyImpl(serverDocument, replay(changeHistory, owlManager), changeHistory);
+    }
+
+    /**
+     * Returns the number of times {@link #open} read the history from the server.
+     */
+    int getHistoryReads() {
+        return historyReads;
+    }
+
+    /**
+     * Returns the size of the cache entry of the given project in bytes, or 0 if there is none.
+     */
+    long getEntrySize(ProjectId projectId) {
+        return getFile(projectId).length();
+    }
+
+    private File getFile(ProjectId projectId) {
+        return new File(directory, projectId.get() + ".history");
+    }
+
+    /**
+     * Returns a new ontology of the given manager with the changes of every revision of the
+     * given history, which must start at R0, applied.
+     */
+    static OWLOntology replay(ChangeHistory changeHistory, OWLOntologyManager owlManager)
+            throws OWLOntologyCreationException {
+        if (!changeHistory.getBaseRevision().equals(DocumentRevision.START_REVISION)) {
+            throw new IllegalArgumentException("History must start at " + DocumentRevision.START_REVISION
+                    + " but starts at " + changeHistory.getBaseRevision());
+        }
+        OWLOntology ontology = owlManager.createOntology();
+        List<OWLOntologyChange> changes = new ArrayList<>();
+        for (DocumentRevision revision : changeHistory.getRevisions()) {
+            for (OWLOntologyChange change : changeHistory.getChangesForRevision(revision)) {
+                changes.add(change.getChangeData().createOntologyChange(ontology));
+            }
+        }
+        owlManager.applyChanges(changes);
+        return ontology;
+    }
+
+    private void write(File file, Entry entry) throws IOException {
+        File partialFile = new File(directory, file.getName() + ".partial");
+        try (ObjectOutputStream out = new ObjectOutputStream(new BufferedOutputStream(new FileOutputStream(partialFile)))) {
+            out.writeObject(entry.changeHistory);
+            out.writeLong(entry.stamp.length);
+            out.writeLong(entry.stamp.lastModified);
+        }
+        Files.move(partialFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private static Entry read(File file) throws IOException {
+        try (ObjectInputStream in = new ObjectInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            ChangeHistory changeHistory = (ChangeHistory) in.readObject();
+            return new Entry(changeHistory, new HistoryStamp(in.readLong(), in.readLong()));
+        }
+        catch (ClassNotFoundException e) {
+            throw new IOException("Corrupt history cache entry " + file, e);
+        }
+    }
+
+    private static class Entry {
+        private final ChangeHistory changeHistory;
+        private final HistoryStamp stamp;
+
+        private Entry(ChangeHistory changeHistory, HistoryStamp stamp) {
+            this.changeHistory = changeHistory;
+            this.stamp = stamp;
+        }
+    }
+
+    private static class HistoryStamp {
+        private final long length;
+        private final long lastModified;
+
+        private HistoryStamp(long length, long lastModified) {
+            this.length = length;
+            this.lastModified = lastModified;
+        }
+
+        /*
+         * Returns the stamp of the given history file, or null if the client cannot see it
+         */
+        private static HistoryStamp of(File historyFile) {
+            return historyFile != null && historyFile.isFile()
+                    ? new HistoryStamp(historyFile.length(), historyFile.lastModified())
+                    : null;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof HistoryStamp)) {
+                return false;
+            }
+            HistoryStamp other = (HistoryStamp) obj;
+            return length == other.length && lastModified == other.lastModified;
+        }
+
+        @Override
+        public int hashCode() {
+            return Long.hashCode(length) * 31 + Long.hashCode(lastModified);
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package org.protege.editor.owl.integration;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.semanticweb.owlapi.apibinding.OWLFunctionalSyntaxFactory.Class;
+import static org.semanticweb.owlapi.apibinding.OWLFunctionalSyntaxFactory.IRI;
+
+import org.protege.editor.owl.client.api.Client;
+import org.protege.editor.owl.client.util.ChangeUtils;
+import org.protege.editor.owl.client.util.ClientUtils;
+import org.protege.editor.owl.server.api.CommitBundle;
+import org.protege.editor.owl.server.policy.CommitBundleImpl;
+import org.protege.editor.owl.server.versioning.Commit;
+import org.protege.editor.owl.server.versioning.api.ChangeHistory;
+import org.protege.editor.owl.server.versioning.api.DocumentRevision;
+import org.protege.editor.owl.server.versioning.api.ServerDocument;
+
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameter;
+import org.junit.runners.Parameterized.Parameters;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLOntologyChange;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+import edu.stanford.protege.metaproject.api.ProjectId;
+
+/**
+ * Runs {@link CommitLoadHarness} under contention with and without rebasing rejected commits
+ * through a {@link CommitRebaser}, and reports the throughput and the number of retries per
+ * successful commit of both.
+ * <p>
+ * The number of clients can be set with <code>-Drebase.clients=4,16,64</code> and the number
+ * of commits per client with <code>-Dload.commits=20</code>.
+ */
+@RunWith(Parameterized.class)
+public class RebaseContentionIT extends BaseTest {
+
+    private static final OWLClass DOMAIN_CONCEPT = Class(IRI(PizzaOntology.getId() + "#", "DomainConcept"));
+
+    private static final int COMMITS_PER_CLIENT = Integer.getInteger("load.commits", 20);
+
+    private static final PerformanceReport report = new PerformanceReport("rebase-contention");
+
+    @Parameters(name = "{0} clients, rebase {1}")
+    public static Collection<Object[]> clients() {
+        List<Object[]> parameters = new ArrayList<>();
+        for (String clients : System.getProperty("rebase.clients", "4,16,64").split(",")) {
+            parameters.add(new Object[] { Integer.valueOf(clients.trim()), false });
+            parameters.add(new Object[] { Integer.valueOf(clients.trim()), true });
+        }
+        return parameters;
+    }
+
+    @Parameter(0)
+    public int numberOfClients;
+
+    @Parameter(1)
+    public boolean rebase;
+
+    private ProjectId projectId;
+
+    @Before
+    public void createProject() throws Exception {
+        projectId = f.getProjectId("pizza-" + System.currentTimeMillis()); // currentTimeMilis() for uniqueness
+        List<OWLOntologyChange> changes = PizzaOntology.getInitialChanges();
+        Commit initialCommit = ClientUtils.createCommit(getAdmin(), "First commit", changes);
+        CommitBundle commitBundle = new CommitBundleImpl(R0, initialCommit);
+        getAdmin().createProject(projectId, f.getName("Pizza Project"), f.getDescription("Rebase contention"),
+                f.getUserId("root"), Optional.empty(), Optional.of(commitBundle));
+    }
+
+    @Test
+    public void shouldCommitUnderContention() throws Exception {
+        List<Client> clients = new ArrayList<>();
+        for (int i = 0; i < numberOfClients; i++) {
+            clients.add(login(f.getUserId("root"), f.getPlainPassword("rootpwd")));
+        }
+        ServerDocument serverDocument = getAdmin().openProject(projectId);
+
+        CommitLoadHarness harness = new CommitLoadHarness(projectId, DOMAIN_CONCEPT,
+                clients, COMMITS_PER_CLIENT, rebase);
+        CommitLoadHarness.Result result = harness.run();
+
+        String scenario = numberOfClients + " clients, " + (rebase ? "rebase" : "recompute");
+        report.record(scenario, "throughput", result.getCommitsPerSecond(), "commits/s");
+        report.record(scenario, "retries", (double) result.getRejectedCommits() / result.getSuccessfulCommits(), "retries/commit");
+        report.record(scenario, "p99", PerformanceReport.millis(result.getLatencyAtPercentile(99)), "ms");
+
+        // Assert every commit became exactly one revision
+        int successfulCommits = result.getSuccessfulCommits();
+        assertThat(successfulCommits, is(numberOfClients * COMMITS_PER_CLIENT));
+        ChangeHistory changeHistoryFromServer = ChangeUtils.getAllChanges(serverDocument);
+        assertThat(changeHistoryFromServer.getHeadRevision(), is(DocumentRevision.create(1 + successfulCommits)));
+        assertThat(changeHistoryFromServer.getRevisions().size(), is(1 + successfulCommits));
+    }
+
+    @After
+    public void removeProject() throws Exception {
+        getAdmin().deleteProject(projectId, true);
+    }
+
+    @AfterClass
+    public static void writeReport() throws Exception {
+        report.write();
+    }
+}
@@ -0,0 +1,130 @@
+package org.protege.editor.owl.integration;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assume.assumeTrue;
+import static org.semanticweb.owlapi.apibinding.OWLFunctionalSyntaxFactory.Class;
+import static org.semanticweb.owlapi.apibinding.OWLFunctionalSyntaxFactory.IRI;
+import static org.semanticweb.owlapi.apibinding.OWLFunctionalSyntaxFactory.SubClassOf;
+
+import org.protege.editor.owl.client.api.Client;
+import org.protege.editor.owl.client.util.ClientUtils;
+import org.protege.editor.owl.server.api.CommitBundle;
+import org.protege.editor.owl.server.policy.CommitBundleImpl;
+import org.protege.editor.owl.server.versioning.Commit;
+import org.protege.editor.owl.server.versioning.api.DocumentRevision;
+import org.protege.editor.owl.server.versioning.api.VersionedOWLOntology;
+
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.AddAxiom;
+import org.semanticweb.owlapi.model.OWLAxiom;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyChange;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+import edu.stanford.protege.metaproject.api.ProjectId;
+
+/**
+ * Opens the same project several times from the same client, each time in a fresh ontology
+ * manager as a new editor session would, through a {@link ProjectHistoryCache}. Re-opening an
+ * unchanged project must not read the history from the server again, and re-opening it after
+ * a commit must read it and show the new head.
+ * <p>
+ * The cache checks the history file of the server, so the tests are skipped when the client
+ * cannot see it, e.g., when the server runs on another machine.
+ */
+public class ReopenProjectIT extends BaseTest {
+
+    private static final OWLClass DOMAIN_CONCEPT = Class(IRI(SyntheticPizzaOntology.ONTOLOGY_ID + "#", "DomainConcept"));
+
+    private static final int NUMBER_OF_AXIOMS = Integer.getInteger("reopen.axioms", 100000);
+
+    private static final PerformanceReport report = new PerformanceReport("reopen-project");
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private ProjectId projectId;
+
+    private Client guest;
+    private ProjectHistoryCache cache;
+
+    @Before
+    public void createProject() throws Exception {
+        projectId = f.getProjectId("synthetic-" + NUMBER_OF_AXIOMS + "-" + System.currentTimeMillis());
+        OWLOntology ontology = SyntheticPizzaOntology.generate(OWLManager.createOWLOntologyManager(), NUMBER_OF_AXIOMS);
+        List<OWLOntologyChange> changes = ClientUtils.getUncommittedChanges(ontology);
+        Commit initialCommit = ClientUtils.createCommit(getAdmin(), "First commit", changes);
+        CommitBundle commitBundle = new CommitBundleImpl(R0, initialCommit);
+        getAdmin().createProject(projectId, f.getName("Synthetic Pizza Project"), f.getDescription("Re-open project"),
+                f.getUserId("root"), Optional.empty(), Optional.of(commitBundle));
+
+        guest = login(f.getUserId("guest"), f.getPlainPassword("guestpwd"));
+        assumeTrue("The history file of the server is not visible to the client",
+                guest.openProject(projectId).getHistoryFile().isFile());
+        cache = new ProjectHistoryCache(folder.newFolder("history-cache"));
+    }
+
+    @Test
+    public void shouldReopenUnchangedProjectFromCache() throws Exception {
+        long start = System.nanoTime();
+        VersionedOWLOntology firstOpen = cache.open(projectId, guest.openProject(projectId),
+                OWLManager.createOWLOntologyManager());
+        long firstOpenTime = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        VersionedOWLOntology secondOpen = cache.open(projectId, guest.openProject(projectId),
+                OWLManager.createOWLOntologyManager());
+        long secondOpenTime = System.nanoTime() - start;
+
+        String scenario = NUMBER_OF_AXIOMS + " axioms";
+        report.record(scenario, "firstOpen", PerformanceReport.millis(firstOpenTime), "ms");
+        report.record(scenario, "cachedOpen", PerformanceReport.millis(secondOpenTime), "ms");
+        report.record(scenario, "serializedServerHistory", PerformanceReport.serializedSize(firstOpen.getChangeHistory()), "bytes");
+        report.record(scenario, "cacheEntry", cache.getEntrySize(projectId), "bytes");
+
+        // Assert the second session read no history from the server and sees the same project state
+        assertThat(cache.getHistoryReads(), is(1));
+        assertThat(secondOpen.getHeadRevision(), is(firstOpen.getHeadRevision()));
+        assertThat(secondOpen.getOntology().getAxioms(), is(firstOpen.getOntology().getAxioms()));
+    }
+
+    @Test
+    public void shouldReadHistoryAgainAfterCommit() throws Exception {
+        cache.open(projectId, guest.openProject(projectId), OWLManager.createOWLOntologyManager());
+
+        VersionedOWLOntology vont = ClientUtils.buildVersionedOntology(getAdmin().openProject(projectId), owlManager);
+        OWLAxiom axiom = SubClassOf(Class(IRI(SyntheticPizzaOntology.ONTOLOGY_ID + "#", "ReopenConcept")), DOMAIN_CONCEPT);
+        List<OWLOntologyChange> changes = Collections.singletonList(new AddAxiom(vont.getOntology(), axiom));
+        Commit commit = ClientUtils.createCommit(getAdmin(), "Add a concept", changes);
+        getAdmin().commit(projectId, new CommitBundleImpl(R1, commit));
+
+        VersionedOWLOntology reopened = cache.open(projectId, guest.openProject(projectId),
+                OWLManager.createOWLOntologyManager());
+
+        // Assert the stale entry was not used
+        assertThat(cache.getHistoryReads(), is(2));
+        assertThat(reopened.getHeadRevision(), is(DocumentRevision.create(2)));
+        assertThat(reopened.getOntology().containsAxiom(axiom), is(true));
+    }
+
+    @After
+    public void removeProject() throws Exception {
+        getAdmin().deleteProject(projectId, true);
+    }
+
+    @AfterClass
+    public static void writeReport() throws Exception {
+        report.write();
+    }
+}
@@ -0,0 +1,266 @@
+package org.protege.editor.owl.integration;
+
+import org.protege.editor.owl.client.util.ChangeUtils;
+import org.protege.editor.owl.server.versioning.VersionedOWLOntologyImpl;
+import org.protege.editor.owl.server.versioning.api.ChangeHistory;
+import org.protege.editor.owl.server.versioning.api.DocumentRevision;
+import org.protege.editor.owl.server.versioning.api.RevisionMetadata;
+import org.protege.editor.owl.server.versioning.api.ServerDocument;
+import org.protege.editor.owl.server.versioning.api.VersionedOWLOntology;
+
+import org.semanticweb.owlapi.change.OWLOntologyChangeData;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyChange;
+import org.semanticweb.owlapi.model.OWLOntologyManager;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.lang.ref.SoftReference;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A file-backed {@link ChangeHistory}. The changes of every revision are written to a local
+ * history file once, and only the file offsets, the head revision and the revision metadata
+ * stay resident. {@link #getChangesForRevision(DocumentRevision)} loads a revision on demand
+ * and keeps it softly reachable, so the garbage collector evicts loaded revisions under
+ * memory pressure. Revisions added with {@link #addRevision}, e.g., when the versioned
+ * ontology is updated after a commit, are appended to the file.
+ * <p>
+ * The changes are stored as {@link OWLOntologyChangeData} and are bound to the working
+ * ontology again when they are loaded. A store is local to the client and cannot be
+ * serialized.
+ * <p>
+ * The store lowers the heap a client retains, not its peak heap: the client API only hands
+ * out the complete {@link ChangeHistory}, so it is in memory while it is spilled, and the
+ * history file of the server is not readable from the client.
+ */
+final class RevisionStore implements ChangeHistory, AutoCloseable {
+
+    private static final long serialVersionUID = 4472150934876102953L;
+
+    private final OWLOntology ontology;
+    private final RandomAccessFile historyFile;
+    private final Map<DocumentRevision, Integer> indexes;
+    private final Map<DocumentRevision, RevisionMetadata> metadata;
+
+    private long[] offsets; // offsets[i] is the start of the i-th revision, offsets[revisionCount] the end
+    private int revisionCount;
+    private DocumentRevision headRevision;
+
+    private final Map<DocumentRevision, SoftReference<List<OWLOntologyChange>>> loadedRevisions = new LinkedHashMap<>();
+
+    private int loadCount = 0;
+
+    private RevisionStore(OWLOntology ontology, RandomAccessFile historyFile, long[] offsets,
+            Map<DocumentRevision, Integer> indexes, DocumentRevision headRevision,
+            Map<DocumentRevision, RevisionMetadata> metadata) {
+        this.ontology = ontology;
+        this.historyFile = historyFile;
+        this.offsets = offsets;
+        this.revisionCount = offsets.length - 1;
+        this.indexes = indexes;
+        this.headRevision = headRevision;
+        this.metadata = metadata;
+    }
+
+    /**
+     * Opens the project of the given server document into a new ontology of the given
+     * manager, like {@link org.protege.editor.owl.client.util.ClientUtils#buildVersionedOntology},
+     * but with its history spilled to the given file. The complete history is only referenced
+     * while it is spilled.
+     */
+    static VersionedOWLOntology openProject(ServerDocument serverDocument, OWLOntologyManager owlManager, File file)
+            throws Exception {
+        ChangeHistory changeHistory = ChangeUtils.getAllChanges(serverDocument);
+        OWLOntology ontology = ProjectHistoryCache.replay(changeHistory, owlManager);
+        return new VersionedOWLOntologyImpl(serverDocument, ontology, spill(changeHistory, ontology, file));
+    }
+
+    /**
+     * Writes the changes of the given history, which must start at R0, to the given file and
+     * returns a store that reads them back on demand against the given working ontology. The
+     * caller can drop its reference to the history afterwards.
+     */
+    static RevisionStore spill(ChangeHistory changeHistory, OWLOntology ontology, File file) throws IOException {
+        if (!changeHistory.getBaseRevision().equals(DocumentRevision.START_REVISION)) {
+            throw new IllegalArgumentException("History must start at " + DocumentRevision.START_REVISION
+                    + " but starts at " + changeHistory.getBaseRevision());
+        }
+        long[] offsets = new long[changeHistory.getRevisions().size() + 1];
+        Map<DocumentRevision, Integer> indexes = new HashMap<>();
+        RandomAccessFile historyFile = new RandomAccessFile(file, "rw");
+        try {
+            historyFile.setLength(0);
+            for (DocumentRevision revision : changeHistory.getRevisions()) {
+                int index = indexes.size();
+                indexes.put(revision, index);
+                offsets[index] = historyFile.getFilePointer();
+                historyFile.write(serialize(changeHistory.getChangesForRevision(revision)));
+            }
+            offsets[indexes.size()] = historyFile.getFilePointer();
+        }
+        catch (IOException | RuntimeException e) {
+            historyFile.close();
+            throw e;
+        }
+        return new RevisionStore(ontology, historyFile, offsets, indexes, changeHistory.getHeadRevision(),
+                new LinkedHashMap<>(changeHistory.getMetadata()));
+    }
+
+    @Override
+    public DocumentRevision getBaseRevision() {
+        return DocumentRevision.START_REVISION;
+    }
+
+    @Override
+    public synchronized DocumentRevision getHeadRevision() {
+        return headRevision;
+    }
+
+    /**
+     * Appends the given revision after the head revision to the history file.
+     */
+    @Override
+    public synchronized void addRevision(RevisionMetadata revisionMetadata, List<OWLOntologyChange> changes) {
+        DocumentRevision revision = DocumentRevision.create(revisionCount + 1);
+        try {
+            historyFile.seek(offsets[revisionCount]);
+            historyFile.write(serialize(changes));
+            if (offsets.length == revisionCount + 1) {
+                offsets = Arrays.copyOf(offsets, 2 * offsets.length);
+            }
+            offsets[revisionCount + 1] = historyFile.getFilePointer();
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException("Cannot append " + revision + " to the history file", e);
+        }
+        indexes.put(revision, revisionCount);
+        metadata.put(revision, revisionMetadata);
+        revisionCount++;
+        headRevision = revision;
+    }
+
+    @Override
+    public synchronized List<DocumentRevision> getRevisions() {
+        List<DocumentRevision> revisions = new ArrayList<>(revisionCount);
+        for (int i = 1; i <= revisionCount; i++) {
+            revisions.add(DocumentRevision.create(i));
+        }
+        return revisions;
+    }
+
+    @Override
+    public synchronized Map<DocumentRevision, RevisionMetadata> getMetadata() {
+        return Collections.unmodifiableMap(new LinkedHashMap<>(metadata));
+    }
+
+    @Override
+    public synchronized RevisionMetadata getMetadataForRevision(DocumentRevision revision) {
+        return metadata.get(revision);
+    }
+
+    /**
+     * Returns the changes of the given revision, reading them from the history file if they
+     * are not loaded or were evicted.
+     *
+     * @throws UncheckedIOException
+     *          If the history file cannot be read
+     */
+    @Override
+    public synchronized List<OWLOntologyChange> getChangesForRevision(DocumentRevision revision) {
+        SoftReference<List<OWLOntologyChange>> reference = loadedRevisions.get(revision);
+        List<OWLOntologyChange> changes = reference == null ? null : reference.get();
+        if (changes == null) {
+            try {
+                changes = Collections.unmodifiableList(load(indexOf(revision)));
+            }
+            catch (IOException e) {
+                throw new UncheckedIOException("Cannot read " + revision + " from the history file", e);
+            }
+            loadedRevisions.put(revision, new SoftReference<>(changes));
+            loadCount++;
+        }
+        return changes;
+    }
+
+    @Override
+    public synchronized boolean isEmpty() {
+        return revisionCount == 0;
+    }
+
+    /**
+     * Returns the number of revisions read from the history file so far.
+     */
+    synchronized int getLoadCount() {
+        return loadCount;
+    }
+
+    /**
+     * Clears the references to the loaded revisions as the garbage collector does under
+     * memory pressure, so the next request of each revision reads it from the history file.
+     */
+    synchronized void evictLoadedRevisions() {
+        for (SoftReference<List<OWLOntologyChange>> reference : loadedRevisions.values()) {
+            reference.clear();
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        loadedRevisions.clear();
+        historyFile.close();
+    }
+
+    private int indexOf(DocumentRevision revision) {
+        Integer index = indexes.get(revision);
+        if (index == null) {
+            throw new IllegalArgumentException("Unknown revision " + revision);
+        }
+        return index;
+    }
+
+    private List<OWLOntologyChange> load(int index) throws IOException {
+        byte[] bytes = new byte[(int) (offsets[index + 1] - offsets[index])];
+        historyFile.seek(offsets[index]);
+        historyFile.readFully(bytes);
+        List<OWLOntologyChange> changes = new ArrayList<>();
+        for (OWLOntologyChangeData changeData : deserialize(bytes)) {
+            changes.add(changeData.createOntologyChange(ontology));
+        }
+        return changes;
+    }
+
+    private static byte[] serialize(List<OWLOntologyChange> changes) throws IOException {
+        List<OWLOntologyChangeData> changeData = new ArrayList<>();
+        for (OWLOntologyChange change : changes) {
+            changeData.add(change.getChangeData());
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(changeData);
+        }
+        return bytes.toByteArray();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<OWLOntologyChangeData> deserialize(byte[] bytes) throws IOException {
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
+            return (List<OWLOntologyChangeData>) in.readObject();
+        }
+        catch (ClassNotFoundException e) {
+            throw new IOException("Corrupt history file", e);
+        }
+    }
+}
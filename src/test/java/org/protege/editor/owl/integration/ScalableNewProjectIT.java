@@ -0,0 +1,116 @@
+package org.protege.editor.owl.integration;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+
+import org.protege.editor.owl.client.util.ChangeUtils;
+import org.protege.editor.owl.client.util.ClientUtils;
+import org.protege.editor.owl.server.api.CommitBundle;
+import org.protege.editor.owl.server.policy.CommitBundleImpl;
+import org.protege.editor.owl.server.versioning.Commit;
+import org.protege.editor.owl.server.versioning.api.ChangeHistory;
+import org.protege.editor.owl.server.versioning.api.ServerDocument;
+
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameter;
+import org.junit.runners.Parameterized.Parameters;
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyChange;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+import edu.stanford.protege.metaproject.api.ProjectId;
+
+/**
+ * A variant of {@link NewProjectTest} that creates projects from synthetic pizza-shaped
+ * ontologies of increasing size and records the createProject latency and heap use.
+ * The initial commit is sent as a single RMI call, so the client holds the ontology, the
+ * change list and the serialized commit bundle at the same time: <code>peakHeapUpperBound</code> is
+ * reported next to the heap of the ontology itself (<code>ontologyHeap</code>) and the size
+ * of the call payload (<code>initialCommitPayload</code>).
+ * <p>
+ * Once the project is created the client must not retain the initial commit: the heap in use
+ * after the call may exceed the heap before it by at most
+ * <code>-Dnewproject.heapBudgetMB=64</code>, whatever the size of the ontology.
+ */
+@RunWith(Parameterized.class)
+public class ScalableNewProjectIT extends BaseTest {
+
+    private static final long HEAP_BUDGET = Long.getLong("newproject.heapBudgetMB", 64) * 1024 * 1024;
+
+    private static final PerformanceReport report = new PerformanceReport("new-project-scale");
+
+    @Parameters(name = "{0} axioms")
+    public static Collection<Object[]> sizes() {
+        return SyntheticPizzaOntology.scaleSizes();
+    }
+
+    @Parameter
+    public int numberOfAxioms;
+
+    private ProjectId projectId;
+
+    @Test
+    public void createNewProject() throws Exception {
+        projectId = f.getProjectId("synthetic-" + numberOfAxioms + "-" + System.currentTimeMillis());
+        long heapBeforeOntology = PerformanceReport.usedHeap();
+        OWLOntology ontology = SyntheticPizzaOntology.generate(OWLManager.createOWLOntologyManager(), numberOfAxioms);
+        assertThat(ontology.getAxiomCount(), is(numberOfAxioms));
+
+        long heapBefore = PerformanceReport.usedHeap();
+        PerformanceReport.resetPeakHeap();
+
+        long start = System.nanoTime();
+        List<OWLOntologyChange> changes = ClientUtils.getUncommittedChanges(ontology);
+        Commit initialCommit = ClientUtils.createCommit(getAdmin(), "First commit", changes);
+        CommitBundle commitBundle = new CommitBundleImpl(R0, initialCommit);
+        long prepared = System.nanoTime();
+        ServerDocument serverDocument = getAdmin().createProject(projectId,
+                f.getName("Synthetic Pizza Project"),
+                f.getDescription(numberOfAxioms + " axioms"),
+                f.getUserId("root"),
+                Optional.empty(), Optional.of(commitBundle));
+        long created = System.nanoTime();
+        long peakHeap = PerformanceReport.peakHeapUpperBound();
+        long payload = PerformanceReport.serializedSize(commitBundle);
+        int numberOfChanges = changes.size();
+
+        // Drop the initial commit before measuring what the client retains
+        changes = null;
+        initialCommit = null;
+        commitBundle = null;
+        long retainedHeap = PerformanceReport.usedHeap() - heapBefore;
+
+        String scenario = numberOfAxioms + " axioms";
+        report.record(scenario, "prepareInitialCommit", PerformanceReport.millis(prepared - start), "ms");
+        report.record(scenario, "createProject", PerformanceReport.millis(created - prepared), "ms");
+        report.record(scenario, "ontologyHeap", PerformanceReport.megabytes(heapBefore - heapBeforeOntology), "MB");
+        report.record(scenario, "peakHeapUpperBound", PerformanceReport.megabytes(peakHeap - heapBefore), "MB");
+        report.record(scenario, "retainedHeap", PerformanceReport.megabytes(retainedHeap), "MB");
+        report.record(scenario, "initialCommitPayload", PerformanceReport.megabytes(payload), "MB");
+        report.record(scenario, "historyFile", PerformanceReport.megabytes(serverDocument.getHistoryFile().length()), "MB");
+
+        ChangeHistory remoteChangeHistory = ChangeUtils.getAllChanges(serverDocument);
+        assertThat(remoteChangeHistory.getHeadRevision(), is(R1));
+        assertThat(remoteChangeHistory.getChangesForRevision(R1).size(), is(numberOfChanges));
+        assertThat(retainedHeap, is(lessThanOrEqualTo(HEAP_BUDGET)));
+    }
+
+    @After
+    public void removeProject() throws Exception {
+        getAdmin().deleteProject(projectId, true);
+    }
+
+    @AfterClass
+    public static void writeReport() throws Exception {
+        report.write();
+    }
+}
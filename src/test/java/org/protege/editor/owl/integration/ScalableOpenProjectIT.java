@@ -0,0 +1,101 @@
+package org.protege.editor.owl.integration;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+import org.protege.editor.owl.client.api.Client;
+import org.protege.editor.owl.client.util.ClientUtils;
+import org.protege.editor.owl.server.api.CommitBundle;
+import org.protege.editor.owl.server.policy.CommitBundleImpl;
+import org.protege.editor.owl.server.versioning.Commit;
+import org.protege.editor.owl.server.versioning.api.ServerDocument;
+import org.protege.editor.owl.server.versioning.api.VersionedOWLOntology;
+
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameter;
+import org.junit.runners.Parameterized.Parameters;
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyChange;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+import edu.stanford.protege.metaproject.api.ProjectId;
+
+/**
+ * A variant of {@link OpenProjectTest} that opens projects created from synthetic
+ * pizza-shaped ontologies of increasing size and records the openProject latency and the
+ * heap retained by the opened project.
+ */
+@RunWith(Parameterized.class)
+public class ScalableOpenProjectIT extends BaseTest {
+
+    private static final PerformanceReport report = new PerformanceReport("open-project-scale");
+
+    @Parameters(name = "{0} axioms")
+    public static Collection<Object[]> sizes() {
+        return SyntheticPizzaOntology.scaleSizes();
+    }
+
+    @Parameter
+    public int numberOfAxioms;
+
+    private ProjectId projectId;
+
+    @Before
+    public void createProject() throws Exception {
+        projectId = f.getProjectId("synthetic-" + numberOfAxioms + "-" + System.currentTimeMillis());
+        OWLOntology ontology = SyntheticPizzaOntology.generate(OWLManager.createOWLOntologyManager(), numberOfAxioms);
+        List<OWLOntologyChange> changes = ClientUtils.getUncommittedChanges(ontology);
+        Commit initialCommit = ClientUtils.createCommit(getAdmin(), "First commit", changes);
+        CommitBundle commitBundle = new CommitBundleImpl(R0, initialCommit);
+        getAdmin().createProject(projectId,
+                f.getName("Synthetic Pizza Project"),
+                f.getDescription(numberOfAxioms + " axioms"),
+                f.getUserId("root"),
+                Optional.empty(), Optional.of(commitBundle));
+    }
+
+    @Test
+    public void shouldOpenProject() throws Exception {
+        Client guest = login(f.getUserId("guest"), f.getPlainPassword("guestpwd"));
+
+        long heapBefore = PerformanceReport.usedHeap();
+        PerformanceReport.resetPeakHeap();
+
+        long start = System.nanoTime();
+        ServerDocument serverDocument = guest.openProject(projectId);
+        long opened = System.nanoTime();
+        VersionedOWLOntology vont = ClientUtils.buildVersionedOntology(serverDocument, owlManager);
+        long built = System.nanoTime();
+
+        long peakHeap = PerformanceReport.peakHeapUpperBound();
+        long retainedHeap = PerformanceReport.usedHeap() - heapBefore;
+
+        String scenario = numberOfAxioms + " axioms";
+        report.record(scenario, "openProject", PerformanceReport.millis(opened - start), "ms");
+        report.record(scenario, "buildVersionedOntology", PerformanceReport.millis(built - opened), "ms");
+        report.record(scenario, "peakHeapUpperBound", PerformanceReport.megabytes(peakHeap - heapBefore), "MB");
+        report.record(scenario, "retainedHeap", PerformanceReport.megabytes(retainedHeap), "MB");
+
+        assertThat(vont.getHeadRevision(), is(R1));
+        assertThat(vont.getOntology().getAxiomCount(), is(numberOfAxioms));
+    }
+
+    @After
+    public void removeProject() throws Exception {
+        getAdmin().deleteProject(projectId, true);
+    }
+
+    @AfterClass
+    public static void writeReport() throws Exception {
+        report.write();
+    }
+}
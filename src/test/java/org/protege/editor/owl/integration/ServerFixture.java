@@ -0,0 +1,165 @@
+package org.protege.editor.owl.integration;
+
+import org.junit.rules.ExternalResource;
+
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.lang.reflect.Method;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Provides the server the integration tests run against.
+ * <p>
+ * By default the tests use the externally started server at <code>rmi://localhost:5100</code>
+ * with its registry at port 5200. When the <code>protege.server.fixture</code> system property
+ * is <code>in-process</code>, the rule instead boots a private server inside the test JVM: it
+ * picks free ports, copies <code>server-configuration.json</code> with the new ports and a
+ * temporary root directory, and runs the main class given by <code>protege.server.launcher</code>
+ * with the path of that configuration file. The server is started once per JVM and is shared
+ * by all test classes of the fork, so several forks can run side by side.
+ */
+public class ServerFixture extends ExternalResource {
+
+    static final String FIXTURE_PROPERTY = "protege.server.fixture";
+    static final String LAUNCHER_PROPERTY = "protege.server.launcher";
+
+    private static final long STARTUP_TIMEOUT = TimeUnit.SECONDS.toMillis(60);
+
+    private static final ServerFixture instance = new ServerFixture();
+
+    private final boolean inProcess;
+    private final int serverPort;
+    private final int registryPort;
+
+    private boolean started = false;
+    private volatile Throwable startupFailure;
+
+    private ServerFixture() {
+        inProcess = "in-process".equals(System.getProperty(FIXTURE_PROPERTY));
+        if (inProcess) {
+            serverPort = freePort();
+            registryPort = freePort();
+        }
+        else {
+            serverPort = 5100;
+            registryPort = 5200;
+        }
+    }
+
+    static ServerFixture getInstance() {
+        return instance;
+    }
+
+    String getServerAddress() {
+        return "rmi://localhost:" + serverPort;
+    }
+
+    int getRegistryPort() {
+        return registryPort;
+    }
+
+    boolean isInProcess() {
+        return inProcess;
+    }
+
+    @Override
+    protected synchronized void before() throws Throwable {
+        if (inProcess && !started) {
+            start();
+            started = true;
+        }
+    }
+
+    private void start() throws Exception {
+        String launcher = System.getProperty(LAUNCHER_PROPERTY, "");
+        if (launcher.isEmpty()) {
+            throw new IllegalStateException("Set -D" + LAUNCHER_PROPERTY
+                    + " to the main class of the server to run it in-process");
+        }
+        final Path serverDirectory = Files.createTempDirectory("protege-server-");
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> deleteRecursively(serverDirectory)));
+        final File configFile = writeConfiguration(serverDirectory);
+
+        final Method main = Class.forName(launcher).getMethod("main", String[].class);
+        Thread serverThread = new Thread(() -> {
+            try {
+                main.invoke(null, (Object) new String[] { configFile.getAbsolutePath() });
+            }
+            catch (Exception e) {
+                startupFailure = e;
+            }
+        }, "protege-server");
+        serverThread.setDaemon(true);
+        serverThread.start();
+        awaitRegistry();
+    }
+
+    private File writeConfiguration(Path serverDirectory) throws IOException {
+        JsonObject configuration;
+        try (Reader reader = new InputStreamReader(
+                ServerFixture.class.getResourceAsStream("/server-configuration.json"), StandardCharsets.UTF_8)) {
+            configuration = new JsonParser().parse(reader).getAsJsonObject();
+        }
+        JsonObject host = configuration.getAsJsonObject("host");
+        host.addProperty("uri", "rmi-owl2-server://localhost:" + serverPort);
+        host.addProperty("secondaryPort", String.valueOf(registryPort));
+        configuration.addProperty("root", serverDirectory.resolve("root").toString());
+
+        File configFile = serverDirectory.resolve("server-configuration.json").toFile();
+        try (Writer writer = Files.newBufferedWriter(configFile.toPath(), StandardCharsets.UTF_8)) {
+            new GsonBuilder().setPrettyPrinting().create().toJson(configuration, writer);
+        }
+        return configFile;
+    }
+
+    private void awaitRegistry() throws Exception {
+        long deadline = System.currentTimeMillis() + STARTUP_TIMEOUT;
+        while (true) {
+            if (startupFailure != null) {
+                throw new IllegalStateException("The server failed to start", startupFailure);
+            }
+            try (Socket socket = new Socket("localhost", registryPort)) {
+                return;
+            }
+            catch (IOException e) {
+                if (System.currentTimeMillis() > deadline) {
+                    throw new IllegalStateException("The server registry is not reachable at port " + registryPort, e);
+                }
+                Thread.sleep(100);
+            }
+        }
+    }
+
+    private static int freePort() {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void deleteRecursively(Path directory) {
+        try (Stream<Path> paths = Files.walk(directory)) {
+            paths.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+        }
+        catch (IOException e) {
+            // Best effort, the directory is in the temporary area anyway
+        }
+    }
+}
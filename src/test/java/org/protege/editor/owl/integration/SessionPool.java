@@ -0,0 +1,179 @@
+package org.protege.editor.owl.integration;
+
+import org.protege.editor.owl.client.LocalClient;
+import org.protege.editor.owl.client.api.Client;
+import org.protege.editor.owl.client.api.exception.LoginTimeoutException;
+import org.protege.editor.owl.client.ui.DefaultUserAuthenticator;
+import org.protege.editor.owl.client.util.ServerUtils;
+import org.protege.editor.owl.server.transport.rmi.RemoteLoginService;
+import org.protege.editor.owl.server.transport.rmi.RmiLoginService;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.rmi.RemoteException;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import edu.stanford.protege.metaproject.api.AuthToken;
+import edu.stanford.protege.metaproject.api.PlainPassword;
+import edu.stanford.protege.metaproject.api.UserId;
+
+/**
+ * Caches the remote login service stub per server and the authentication token per server
+ * and user, so that creating another client for the same user skips both the registry lookup
+ * and the authentication handshake.
+ * <p>
+ * The pool keeps a digest of the password a token was issued for, never the password itself,
+ * and authenticates again if a different password is given. A token is dropped when the
+ * server rejects the credentials or when a client created by {@link #login} gets a
+ * {@link LoginTimeoutException}, i.e., the server no longer accepts the token, so the next
+ * login authenticates again. Other failures, such as denied operations, conflicting commits
+ * or transient RMI errors, leave the pooled token in place.
+ * <p>
+ * Pooling is opt-in: the tests use it only when the <code>client.sessionPool</code> system
+ * property is set to <code>true</code>, and log in afresh otherwise.
+ */
+final class SessionPool {
+
+    private static final SessionPool instance = new SessionPool();
+
+    private final ConcurrentMap<List<Object>, RemoteLoginService> loginServices = new ConcurrentHashMap<>();
+
+    private final ConcurrentMap<List<Object>, Session> sessions = new ConcurrentHashMap<>();
+
+    static SessionPool getInstance() {
+        return instance;
+    }
+
+    /**
+     * Returns whether the tests should take their tokens from the pool.
+     */
+    static boolean isEnabled() {
+        return Boolean.getBoolean("client.sessionPool");
+    }
+
+    RemoteLoginService getLoginService(String serverAddress, int registryPort) throws Exception {
+        List<Object> key = Arrays.asList(serverAddress, registryPort);
+        RemoteLoginService loginService = loginServices.get(key);
+        if (loginService == null) {
+            loginService = lookupLoginService(serverAddress, registryPort);
+            RemoteLoginService existing = loginServices.putIfAbsent(key, loginService);
+            if (existing != null) {
+                loginService = existing;
+            }
+        }
+        return loginService;
+    }
+
+    AuthToken getAuthToken(String serverAddress, int registryPort, UserId userId, PlainPassword password)
+            throws Exception {
+        List<Object> key = Arrays.asList(serverAddress, registryPort, userId);
+        byte[] passwordDigest = digest(password);
+        Session session = sessions.get(key);
+        if (session == null || !MessageDigest.isEqual(session.passwordDigest, passwordDigest)) {
+            AuthToken authToken;
+            try {
+                authToken = authenticate(getLoginService(serverAddress, registryPort), userId, password);
+            }
+            catch (Exception e) {
+                if (!isTransient(e)) {
+                    invalidate(serverAddress, registryPort, userId);
+                }
+                throw e;
+            }
+            session = new Session(authToken, passwordDigest);
+            sessions.put(key, session);
+        }
+        return session.authToken;
+    }
+
+    /**
+     * Returns a client of the given user with a pooled token. The client drops the token from
+     * the pool when the server no longer accepts it. It only implements {@link Client}
+     * and cannot be cast to {@link LocalClient}.
+     */
+    Client login(String serverAddress, int registryPort, UserId userId, PlainPassword password) throws Exception {
+        AuthToken authToken = getAuthToken(serverAddress, registryPort, userId, password);
+        Client client = new LocalClient(authToken, serverAddress, registryPort);
+        InvocationHandler handler = (proxy, method, args) -> invoke(client, method, args,
+                () -> invalidate(serverAddress, registryPort, userId, authToken));
+        return (Client) Proxy.newProxyInstance(Client.class.getClassLoader(), new Class<?>[] { Client.class }, handler);
+    }
+
+    /**
+     * Drops the cached token of the given user, e.g., after the server rejected it.
+     */
+    void invalidate(String serverAddress, int registryPort, UserId userId) {
+        sessions.remove(Arrays.asList(serverAddress, registryPort, userId));
+    }
+
+    /**
+     * Drops the cached token of the given user only if it is still the given one, so that a
+     * failing client does not drop a token that another login has just renewed.
+     */
+    private void invalidate(String serverAddress, int registryPort, UserId userId, AuthToken authToken) {
+        sessions.computeIfPresent(Arrays.asList(serverAddress, registryPort, userId),
+                (key, session) -> session.authToken.equals(authToken) ? null : session);
+    }
+
+    private static Object invoke(Client client, Method method, Object[] args, Runnable onExpired) throws Throwable {
+        try {
+            return method.invoke(client, args);
+        }
+        catch (InvocationTargetException e) {
+            if (e.getCause() instanceof LoginTimeoutException) {
+                onExpired.run();
+            }
+            throw e.getCause();
+        }
+    }
+
+    /*
+     * Returns whether the given failure is a communication error rather than a rejection by
+     * the server
+     */
+    private static boolean isTransient(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof RemoteException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Looks up the login service of the given server without going through the pool.
+     */
+    static RemoteLoginService lookupLoginService(String serverAddress, int registryPort) throws Exception {
+        return (RemoteLoginService) ServerUtils.getRemoteService(serverAddress, registryPort, RmiLoginService.LOGIN_SERVICE);
+    }
+
+    /**
+     * Authenticates the user without going through the pool.
+     */
+    static AuthToken authenticate(RemoteLoginService loginService, UserId userId, PlainPassword password)
+            throws Exception {
+        DefaultUserAuthenticator authenticator = new DefaultUserAuthenticator(loginService);
+        return authenticator.hasValidCredentials(userId, password);
+    }
+
+    private static byte[] digest(PlainPassword password) throws Exception {
+        return MessageDigest.getInstance("SHA-256").digest(password.getPassword().getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static class Session {
+        private final AuthToken authToken;
+        private final byte[] passwordDigest;
+
+        private Session(AuthToken authToken, byte[] passwordDigest) {
+            this.authToken = authToken;
+            this.passwordDigest = passwordDigest;
+        }
+    }
+}
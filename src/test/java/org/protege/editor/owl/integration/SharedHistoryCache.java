@@ -0,0 +1,176 @@
+package org.protege.editor.owl.integration;
+
+import org.protege.editor.owl.server.versioning.api.ChangeHistory;
+import org.protege.editor.owl.server.versioning.api.DocumentRevision;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+import edu.stanford.protege.metaproject.api.ProjectId;
+
+/**
+ * Shares the change history of a project among the read-only users of one JVM, e.g., the
+ * sessions of an application server, so that only the first of them downloads it from the
+ * server. Concurrent requests for a history that is still being loaded wait for that load
+ * instead of starting their own.
+ * <p>
+ * This is not a cache on the server: the server has no shared read path for histories and
+ * every client that is not in this JVM still downloads the whole history itself.
+ * <p>
+ * Histories are keyed by the project and their head revision, so a reader asks for the head
+ * it expects, e.g., the head of its own last commit. The client API has no request for only
+ * the head revision of a project, so a reader that learns the head from a full download,
+ * e.g., with a {@link HistoryPoller}, saves nothing. A loaded history whose head is not the
+ * requested one is cached at its own head, and the reader and every request waiting for the
+ * same load get a {@link HeadMovedException} with that head instead of the history. The
+ * older heads of a project age out of the cache.
+ * <p>
+ * The cache holds at most <code>maxBytes</code> of histories, measured by their serialized
+ * size, and evicts the least recently used history first.
+ */
+final class SharedHistoryCache {
+
+    /**
+     * Loads the history of a project from the server.
+     */
+    @FunctionalInterface
+    interface Loader {
+        ChangeHistory load(ProjectId projectId) throws Exception;
+    }
+
+    private final long maxBytes;
+
+    private final Map<List<Object>, Entry> entries = new LinkedHashMap<>(16, 0.75f, true); // access order
+
+    private long totalBytes = 0;
+    private long hits = 0;
+    private long misses = 0;
+
+    SharedHistoryCache(long maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Returns the history of the given project at the given head revision, loading it if it
+     * is not cached.
+     *
+     * @throws HeadMovedException
+     *          If the loaded history has another head revision than the given one
+     */
+    ChangeHistory get(ProjectId projectId, DocumentRevision headRevision, Loader loader) throws Exception {
+        List<Object> key = Arrays.asList(projectId, headRevision);
+        Entry entry;
+        boolean load = false;
+        synchronized (this) {
+            entry = entries.get(key);
+            if (entry == null) {
+                entry = new Entry();
+                entries.put(key, entry);
+                misses++;
+                load = true;
+            }
+            else {
+                hits++;
+            }
+        }
+        if (load) {
+            ChangeHistory changeHistory;
+            long bytes;
+            try {
+                changeHistory = loader.load(projectId);
+                bytes = PerformanceReport.serializedSize(changeHistory);
+            }
+            catch (Exception e) {
+                synchronized (this) {
+                    entries.remove(key, entry);
+                }
+                entry.history.completeExceptionally(e);
+                throw e;
+            }
+            DocumentRevision loadedHead = changeHistory.getHeadRevision();
+            if (loadedHead.equals(headRevision)) {
+                admit(key, entry, bytes);
+                entry.history.complete(changeHistory);
+            }
+            else {
+                synchronized (this) {
+                    entries.remove(key, entry);
+                }
+                admitLoaded(Arrays.asList(projectId, loadedHead), changeHistory, bytes);
+                entry.history.completeExceptionally(new HeadMovedException("Requested the history of project "
+                        + projectId.get() + " at " + headRevision + " but its head is " + loadedHead, loadedHead));
+            }
+        }
+        try {
+            return entry.history.get();
+        }
+        catch (ExecutionException e) {
+            throw (Exception) e.getCause();
+        }
+    }
+
+    /**
+     * Drops the cached histories of the given project at every head revision.
+     */
+    synchronized void invalidate(ProjectId projectId) {
+        Iterator<Map.Entry<List<Object>, Entry>> cached = entries.entrySet().iterator();
+        while (cached.hasNext()) {
+            Map.Entry<List<Object>, Entry> entry = cached.next();
+            if (entry.getKey().get(0).equals(projectId)) {
+                totalBytes -= entry.getValue().bytes;
+                cached.remove();
+            }
+        }
+    }
+
+    synchronized long getHits() {
+        return hits;
+    }
+
+    synchronized long getMisses() {
+        return misses;
+    }
+
+    synchronized long getTotalBytes() {
+        return totalBytes;
+    }
+
+    /*
+     * Caches a history that was loaded for another key, unless its key is already cached
+     */
+    private synchronized void admitLoaded(List<Object> key, ChangeHistory changeHistory, long bytes) {
+        if (entries.containsKey(key)) {
+            return;
+        }
+        Entry entry = new Entry();
+        entry.history.complete(changeHistory);
+        entries.put(key, entry);
+        admit(key, entry, bytes);
+    }
+
+    private synchronized void admit(List<Object> key, Entry entry, long bytes) {
+        if (entries.get(key) != entry) {
+            return; // invalidated while loading
+        }
+        entry.bytes = bytes;
+        totalBytes += bytes;
+        Iterator<Map.Entry<List<Object>, Entry>> eldest = entries.entrySet().iterator();
+        while (totalBytes > maxBytes && eldest.hasNext()) {
+            Entry evicted = eldest.next().getValue();
+            if (evicted.history.isDone()) {
+                totalBytes -= evicted.bytes;
+                eldest.remove();
+            }
+        }
+    }
+
+    private static class Entry {
+        private final CompletableFuture<ChangeHistory> history = new CompletableFuture<>();
+        private long bytes = 0;
+    }
+}
@@ -0,0 +1,186 @@
+package org.protege.editor.owl.integration;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.fail;
+import static org.semanticweb.owlapi.apibinding.OWLFunctionalSyntaxFactory.Class;
+import static org.semanticweb.owlapi.apibinding.OWLFunctionalSyntaxFactory.IRI;
+
+import org.protege.editor.owl.client.api.Client;
+import org.protege.editor.owl.client.util.ChangeUtils;
+import org.protege.editor.owl.client.util.ClientUtils;
+import org.protege.editor.owl.server.api.CommitBundle;
+import org.protege.editor.owl.server.policy.CommitBundleImpl;
+import org.protege.editor.owl.server.versioning.Commit;
+import org.protege.editor.owl.server.versioning.api.ChangeHistory;
+import org.protege.editor.owl.server.versioning.api.VersionedOWLOntology;
+
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.Test;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLOntologyChange;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import edu.stanford.protege.metaproject.api.ProjectId;
+
+/**
+ * Lets 200 guests in this JVM open the same project at once, first each downloading the
+ * history from the server and then through a {@link SharedHistoryCache}, and reports the
+ * throughput and the number of history downloads in both runs. The cache only shares
+ * histories within the JVM, so the single download of the second run holds for guests of
+ * one process and not for separate clients of the server. Finally it checks that readers get
+ * the new head after a commit and never the history of another head than they asked for.
+ * <p>
+ * The number of guests can be set with <code>-Dreaders.clients=200</code>.
+ */
+public class SharedHistoryLoadIT extends BaseTest {
+
+    private static final OWLClass DOMAIN_CONCEPT = Class(IRI(PizzaOntology.getId() + "#", "DomainConcept"));
+
+    private static final int NUMBER_OF_GUESTS = Integer.getInteger("readers.clients", 200);
+    private static final long CACHE_SIZE = 256L * 1024 * 1024;
+
+    private static final PerformanceReport report = new PerformanceReport("shared-history-load");
+
+    private ProjectId projectId;
+
+    private final List<Client> guests = new ArrayList<>();
+
+    @Before
+    public void createProject() throws Exception {
+        projectId = f.getProjectId("pizza-" + System.currentTimeMillis()); // currentTimeMilis() for uniqueness
+        List<OWLOntologyChange> changes = PizzaOntology.getInitialChanges();
+        Commit initialCommit = ClientUtils.createCommit(getAdmin(), "First commit", changes);
+        CommitBundle commitBundle = new CommitBundleImpl(R0, initialCommit);
+        getAdmin().createProject(projectId, f.getName("Pizza Project"), f.getDescription("Shared history load"),
+                f.getUserId("root"), Optional.empty(), Optional.of(commitBundle));
+        for (int i = 0; i < NUMBER_OF_GUESTS; i++) {
+            guests.add(login(f.getUserId("guest"), f.getPlainPassword("guestpwd")));
+        }
+    }
+
+    @Test
+    public void shouldServeReadersFromSharedHistory() throws Exception {
+        long elapsed = openByAllGuests(guest -> ChangeUtils.getAllChanges(guest.openProject(projectId)));
+
+        SharedHistoryCache cache = new SharedHistoryCache(CACHE_SIZE);
+        long cachedElapsed = openByAllGuests(guest -> cache.get(projectId, R1,
+                project -> ChangeUtils.getAllChanges(guest.openProject(project))));
+
+        String scenario = NUMBER_OF_GUESTS + " guests";
+        report.record(scenario, "uncachedThroughput", NUMBER_OF_GUESTS / (elapsed / 1e9), "opens/s");
+        report.record(scenario, "cachedThroughput", NUMBER_OF_GUESTS / (cachedElapsed / 1e9), "opens/s");
+        report.record(scenario, "uncachedHistoryDownloads", NUMBER_OF_GUESTS, "downloads");
+        report.record(scenario, "cachedHistoryDownloads", cache.getMisses(), "downloads");
+        report.record(scenario, "cachedHistory", PerformanceReport.megabytes(cache.getTotalBytes()), "MB");
+
+        // Assert only the first guest in this JVM went to the server
+        assertThat(cache.getMisses(), is(1L));
+        assertThat(cache.getHits(), is((long) NUMBER_OF_GUESTS - 1));
+    }
+
+    @Test
+    public void shouldServeNewHeadAfterCommit() throws Exception {
+        SharedHistoryCache cache = new SharedHistoryCache(CACHE_SIZE);
+        Client guest = guests.get(0);
+        SharedHistoryCache.Loader loader = project -> ChangeUtils.getAllChanges(guest.openProject(project));
+        assertThat(cache.get(projectId, R1, loader).getHeadRevision(), is(R1));
+
+        VersionedOWLOntology vont = ClientUtils.buildVersionedOntology(getAdmin().openProject(projectId), owlManager);
+        HistoryBuilder.appendRevisions(getAdmin(), projectId, vont, DOMAIN_CONCEPT, 1);
+        ChangeHistory changeHistory = cache.get(projectId, vont.getHeadRevision(), loader);
+
+        // Assert the cache serves the new revision and still has the old one
+        assertThat(changeHistory.getHeadRevision(), is(R2));
+        assertThat(changeHistory.getChangesForRevision(R2).size(), is(HistoryBuilder.CHANGES_PER_REVISION));
+        assertThat(cache.get(projectId, R1, loader).getHeadRevision(), is(R1));
+        assertThat(cache.getMisses(), is(2L));
+    }
+
+    @Test
+    public void shouldNotServeHistoryOfAnotherHead() throws Exception {
+        SharedHistoryCache cache = new SharedHistoryCache(CACHE_SIZE);
+        VersionedOWLOntology vont = ClientUtils.buildVersionedOntology(getAdmin().openProject(projectId), owlManager);
+        HistoryBuilder.appendRevisions(getAdmin(), projectId, vont, DOMAIN_CONCEPT, 1);
+
+        // Every guest still expects R1 but the server sends the history at R2
+        ExecutorService executor = Executors.newFixedThreadPool(guests.size());
+        try {
+            List<Callable<ChangeHistory>> openings = new ArrayList<>();
+            for (Client guest : guests) {
+                openings.add(() -> cache.get(projectId, R1,
+                        project -> ChangeUtils.getAllChanges(guest.openProject(project))));
+            }
+            for (Future<ChangeHistory> result : executor.invokeAll(openings)) {
+                try {
+                    result.get();
+                    fail("A guest got a history although its head is not " + R1);
+                }
+                catch (ExecutionException e) {
+                    assertThat(e.getCause(), instanceOf(HeadMovedException.class));
+                    assertThat(((HeadMovedException) e.getCause()).getHeadRevision(), is(R2));
+                }
+            }
+        }
+        finally {
+            executor.shutdownNow();
+        }
+
+        // Assert the history at the actual head was cached and is served without a download
+        long misses = cache.getMisses();
+        ChangeHistory changeHistory = cache.get(projectId, R2, project -> {
+            throw new AssertionError("The history at " + R2 + " should be cached");
+        });
+        assertThat(changeHistory.getHeadRevision(), is(R2));
+        assertThat(cache.getMisses(), is(misses));
+    }
+
+    @FunctionalInterface
+    private interface HistoryReader {
+        ChangeHistory open(Client guest) throws Exception;
+    }
+
+    /*
+     * Returns the time for all guests to open the project concurrently.
+     */
+    private long openByAllGuests(HistoryReader reader) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(guests.size());
+        try {
+            List<Callable<ChangeHistory>> openings = new ArrayList<>();
+            for (Client guest : guests) {
+                openings.add(() -> reader.open(guest));
+            }
+            long start = System.nanoTime();
+            List<Future<ChangeHistory>> results = executor.invokeAll(openings);
+            long elapsed = System.nanoTime() - start;
+            for (Future<ChangeHistory> result : results) {
+                assertThat(result.get().getChangesForRevision(R1).size(), is(945));
+            }
+            return elapsed;
+        }
+        finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @After
+    public void removeProject() throws Exception {
+        getAdmin().deleteProject(projectId, true);
+    }
+
+    @AfterClass
+    public static void writeReport() throws Exception {
+        report.write();
+    }
+}
@@ -0,0 +1,200 @@
+package org.protege.editor.owl.integration;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.endsWith;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+import static org.semanticweb.owlapi.apibinding.OWLFunctionalSyntaxFactory.Class;
+import static org.semanticweb.owlapi.apibinding.OWLFunctionalSyntaxFactory.IRI;
+import static org.semanticweb.owlapi.apibinding.OWLFunctionalSyntaxFactory.SubClassOf;
+
+import org.protege.editor.owl.client.api.Client;
+import org.protege.editor.owl.client.util.ChangeUtils;
+import org.protege.editor.owl.client.util.ClientUtils;
+import org.protege.editor.owl.server.api.CommitBundle;
+import org.protege.editor.owl.server.policy.CommitBundleImpl;
+import org.protege.editor.owl.server.versioning.Commit;
+import org.protege.editor.owl.server.versioning.api.ChangeHistory;
+import org.protege.editor.owl.server.versioning.api.DocumentRevision;
+import org.protege.editor.owl.server.versioning.api.ServerDocument;
+import org.protege.editor.owl.server.versioning.api.VersionedOWLOntology;
+
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.AddAxiom;
+import org.semanticweb.owlapi.model.OWLAxiom;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyChange;
+import org.semanticweb.owlapi.model.RemoveAxiom;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+import edu.stanford.protege.metaproject.api.ProjectId;
+import edu.stanford.protege.metaproject.api.UserId;
+
+/**
+ * Builds a pizza project with a long fine-grained history, half of which are additions and
+ * removals that cancel out, exports a copy with all but the last 10 revisions squashed with a
+ * {@link SquashedHistoryExporter}, and checks that the copy has the same head ontology, keeps
+ * the last revisions with their comments and has a smaller history file, while the history
+ * of the source project is left as it was. The open times of both projects are reported.
+ * It also checks that a user without the <code>squash-history</code> operation is denied.
+ * <p>
+ * The number of revisions can be set with <code>-Dexport.revisions=1000</code>.
+ */
+public class SquashedHistoryExportIT extends BaseTest {
+
+    private static final String ONTOLOGY_ID = PizzaOntology.getId() + "#";
+
+    private static final OWLClass DOMAIN_CONCEPT = Class(IRI(ONTOLOGY_ID, "DomainConcept"));
+    private static final OWLClass MEAT_TOPPING = Class(IRI(ONTOLOGY_ID, "MeatTopping"));
+
+    private static final int NUMBER_OF_REVISIONS = Integer.getInteger("export.revisions", 1000);
+    private static final int REPLAYED_REVISIONS = 10;
+
+    private static final PerformanceReport report = new PerformanceReport("squashed-history-export");
+
+    @Rule
+    public ExpectedException thrown = ExpectedException.none();
+
+    private ProjectId projectId;
+    private ProjectId squashedProjectId;
+
+    private VersionedOWLOntology vont;
+    private int churnRevisions;
+
+    @Before
+    public void createProject() throws Exception {
+        projectId = f.getProjectId("pizza-" + System.currentTimeMillis()); // currentTimeMilis() for uniqueness
+        squashedProjectId = f.getProjectId(projectId.get() + "-squashed");
+        List<OWLOntologyChange> changes = PizzaOntology.getInitialChanges();
+        Commit initialCommit = ClientUtils.createCommit(getAdmin(), "First commit", changes);
+        CommitBundle commitBundle = new CommitBundleImpl(R0, initialCommit);
+        getAdmin().createProject(projectId, f.getName("Pizza Project"), f.getDescription("Squashed history export"),
+                f.getUserId("root"), Optional.empty(), Optional.of(commitBundle));
+
+        vont = ClientUtils.buildVersionedOntology(getAdmin().openProject(projectId), owlManager);
+        churnRevisions = (NUMBER_OF_REVISIONS - 1) / 2;
+        HistoryBuilder.appendRevisions(getAdmin(), projectId, vont, DOMAIN_CONCEPT, NUMBER_OF_REVISIONS - 1 - churnRevisions);
+        appendChurn(churnRevisions);
+    }
+
+    /*
+     * Commits revisions that alternately add and remove the same axiom
+     */
+    private void appendChurn(int numberOfRevisions) throws Exception {
+        OWLAxiom axiom = SubClassOf(MEAT_TOPPING, DOMAIN_CONCEPT);
+        for (int i = 0; i < numberOfRevisions; i++) {
+            OWLOntologyChange change = i % 2 == 0
+                    ? new AddAxiom(vont.getOntology(), axiom)
+                    : new RemoveAxiom(vont.getOntology(), axiom);
+            owlManager.applyChange(change);
+            Commit commit = ClientUtils.createCommit(getAdmin(), "Churn " + i, Collections.singletonList(change));
+            vont.update(getAdmin().commit(projectId, new CommitBundleImpl(vont.getHeadRevision(), commit)));
+        }
+    }
+
+    @Test
+    public void shouldExportSquashedCopy() throws Exception {
+        SquashedHistoryExporter exporter = newExporter(getAdmin(), f.getUserId("root"));
+        DocumentRevision lastSquashed = DocumentRevision.create(NUMBER_OF_REVISIONS - REPLAYED_REVISIONS);
+
+        ServerDocument original = getAdmin().openProject(projectId);
+        long originalFileSize = original.getHistoryFile().length();
+        long start = System.nanoTime();
+        ChangeUtils.getAllChanges(getAdmin().openProject(projectId));
+        long originalOpenTime = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        ServerDocument squashed = exporter.exportSquashedCopy(projectId, lastSquashed, squashedProjectId,
+                f.getName("Squashed Pizza Project"), f.getDescription("Squashed history export"));
+        long squashTime = System.nanoTime() - start;
+        ChangeHistory sourceHistory = ChangeUtils.getAllChanges(getAdmin().openProject(projectId));
+
+        long squashedFileSize = squashed.getHistoryFile().length();
+        start = System.nanoTime();
+        ChangeHistory squashedHistory = ChangeUtils.getAllChanges(getAdmin().openProject(squashedProjectId));
+        long squashedOpenTime = System.nanoTime() - start;
+
+        String scenario = NUMBER_OF_REVISIONS + " revisions";
+        report.record(scenario, "squash", PerformanceReport.millis(squashTime), "ms");
+        report.record(scenario, "historyFile", originalFileSize, "bytes");
+        report.record(scenario, "squashedHistoryFile", squashedFileSize, "bytes");
+        report.record(scenario, "open", PerformanceReport.millis(originalOpenTime), "ms");
+        report.record(scenario, "squashedOpen", PerformanceReport.millis(squashedOpenTime), "ms");
+
+        // Assert the copy has one baseline revision, the replayed revisions and the same head ontology
+        DocumentRevision squashedHead = DocumentRevision.create(1 + REPLAYED_REVISIONS);
+        assertThat(squashedHistory.getHeadRevision(), is(squashedHead));
+        assertThat(squashedHistory.getRevisions().size(), is(1 + REPLAYED_REVISIONS));
+        assertThat(squashedHistory.getMetadata().get(R1).getComment(),
+                is("Squashed R1.." + lastSquashed + " of project " + projectId.get()));
+        assertThat(squashedHistory.getMetadata().get(squashedHead).getComment(),
+                endsWith(": Churn " + (churnRevisions - 1)));
+        VersionedOWLOntology squashedVont = ClientUtils.buildVersionedOntology(
+                getAdmin().openProject(squashedProjectId), OWLManager.createOWLOntologyManager());
+        OWLOntology head = vont.getOntology();
+        OWLOntology squashedOntology = squashedVont.getOntology();
+        assertThat(squashedOntology.getOntologyID(), is(head.getOntologyID()));
+        assertThat(squashedOntology.getAxioms(), is(head.getAxioms()));
+        assertThat(squashedOntology.getAnnotations(), is(head.getAnnotations()));
+        assertThat(squashedOntology.getImportsDeclarations(), is(head.getImportsDeclarations()));
+
+        // Assert the copy has a smaller history and the history of the source project is unchanged
+        assertThat(squashedFileSize, is(lessThan(originalFileSize)));
+        assertThat(sourceHistory.getRevisions().size(), is(NUMBER_OF_REVISIONS));
+        assertThat(sourceHistory.getHeadRevision(), is(vont.getHeadRevision()));
+        assertThat(getAdmin().openProject(projectId).getHistoryFile().length(), is(originalFileSize));
+    }
+
+    @Test
+    public void shouldNotSquashBeyondHead() throws Exception {
+        SquashedHistoryExporter exporter = newExporter(getAdmin(), f.getUserId("root"));
+
+        thrown.expect(IllegalArgumentException.class);
+        thrown.expectMessage("Cannot squash up to");
+
+        exporter.exportSquashedCopy(projectId, DocumentRevision.create(NUMBER_OF_REVISIONS + 1), squashedProjectId,
+                f.getName("Squashed Pizza Project"), f.getDescription("Squashed history export"));
+    }
+
+    @Test
+    public void shouldDenyGuest() throws Exception {
+        SquashedHistoryExporter exporter = newExporter(login(f.getUserId("guest"), f.getPlainPassword("guestpwd")),
+                f.getUserId("guest"));
+
+        thrown.expect(OperationDeniedException.class);
+        thrown.expectMessage("User has no permission for 'Squash history' operation");
+
+        exporter.exportSquashedCopy(projectId, DocumentRevision.create(NUMBER_OF_REVISIONS - REPLAYED_REVISIONS),
+                squashedProjectId, f.getName("Squashed Pizza Project"), f.getDescription("Squashed history export"));
+    }
+
+    private static SquashedHistoryExporter newExporter(Client client, UserId userId) {
+        return new SquashedHistoryExporter(client, userId, new PolicyCache(client, userId));
+    }
+
+    @After
+    public void removeProjects() throws Exception {
+        getAdmin().deleteProject(projectId, true);
+        try {
+            getAdmin().deleteProject(squashedProjectId, true);
+        }
+        catch (Exception e) {
+            // Not created by this test
+        }
+    }
+
+    @AfterClass
+    public static void writeReport() throws Exception {
+        report.write();
+    }
+}
@@ -0,0 +1,95 @@
+package org.protege.editor.owl.integration;
+
+import org.protege.editor.owl.client.api.Client;
+import org.protege.editor.owl.client.util.ChangeUtils;
+import org.protege.editor.owl.client.util.ClientUtils;
+import org.protege.editor.owl.server.policy.CommitBundleImpl;
+import org.protege.editor.owl.server.versioning.Commit;
+import org.protege.editor.owl.server.versioning.api.ChangeHistory;
+import org.protege.editor.owl.server.versioning.api.DocumentRevision;
+import org.protege.editor.owl.server.versioning.api.RevisionMetadata;
+import org.protege.editor.owl.server.versioning.api.ServerDocument;
+
+import java.util.Optional;
+
+import edu.stanford.protege.metaproject.api.Description;
+import edu.stanford.protege.metaproject.api.Name;
+import edu.stanford.protege.metaproject.api.ProjectId;
+import edu.stanford.protege.metaproject.api.UserId;
+
+/**
+ * Exports a squashed copy of a project: the revisions R1..Rn of the source project are folded
+ * into a single baseline revision holding their net changes, i.e., without the additions and
+ * removals that cancel each other out, and the revisions after Rn are replayed on top of it
+ * one by one. The copy is a new project; the source project and its full history are left
+ * untouched.
+ * <p>
+ * This is an export and not a compaction of the project itself: the server stores a history
+ * as an append-only file and the client API has no call to rewrite or replace it, so the
+ * history of the source project does not shrink.
+ * <p>
+ * The comment of the baseline names the squashed range and the source project. Every replayed
+ * revision keeps its own comment, prefixed with its revision and author in the source
+ * project, since the replayed commits are authored by the exporting user. Exporting needs the
+ * <code>squash-history</code> operation on the source project, which is checked against the
+ * policy the server grants the user before anything is read, and creating the copy needs the
+ * <code>add-project</code> operation, which the server checks.
+ */
+final class SquashedHistoryExporter {
+
+    static final String SQUASH_HISTORY = "squash-history";
+
+    private final Client client;
+    private final UserId userId;
+    private final PolicyCache policies;
+
+    SquashedHistoryExporter(Client client, UserId userId, PolicyCache policies) {
+        this.client = client;
+        this.userId = userId;
+        this.policies = policies;
+    }
+
+    /**
+     * Creates the project <code>targetId</code> from the history of the project
+     * <code>sourceId</code> with the revisions R1..<code>lastSquashed</code> squashed into one.
+     *
+     * @throws OperationDeniedException
+     *          If the user may not squash the history of the source project
+     */
+    ServerDocument exportSquashedCopy(ProjectId sourceId, DocumentRevision lastSquashed, ProjectId targetId,
+            Name name, Description description) throws Exception {
+        policies.get(sourceId).checkOperation(SQUASH_HISTORY);
+        ChangeHistory changeHistory = ChangeUtils.getAllChanges(client.openProject(sourceId));
+        int headRevision = changeHistory.getRevisions().size();
+        int squashedRevisions = indexOf(lastSquashed, headRevision);
+
+        NetChangeSet netChanges = new NetChangeSet();
+        for (int i = 1; i <= squashedRevisions; i++) {
+            netChanges.addAll(changeHistory.getChangesForRevision(DocumentRevision.create(i)));
+        }
+        String comment = "Squashed R1.." + lastSquashed + " of project " + sourceId.get();
+        Commit baseline = ClientUtils.createCommit(client, comment, netChanges.getChanges());
+        ServerDocument serverDocument = client.createProject(targetId, name, description, userId,
+                Optional.empty(), Optional.of(new CommitBundleImpl(DocumentRevision.START_REVISION, baseline)));
+
+        DocumentRevision base = DocumentRevision.create(1);
+        for (int i = squashedRevisions + 1; i <= headRevision; i++) {
+            DocumentRevision revision = DocumentRevision.create(i);
+            RevisionMetadata metadata = changeHistory.getMetadata().get(revision);
+            String replayComment = revision + " of project " + sourceId.get() + " by " + metadata.getAuthorId()
+                    + ": " + metadata.getComment();
+            Commit commit = ClientUtils.createCommit(client, replayComment, changeHistory.getChangesForRevision(revision));
+            base = client.commit(targetId, new CommitBundleImpl(base, commit)).getHeadRevision();
+        }
+        return serverDocument;
+    }
+
+    private static int indexOf(DocumentRevision revision, int headRevision) {
+        for (int i = 1; i <= headRevision; i++) {
+            if (DocumentRevision.create(i).equals(revision)) {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException("Cannot squash up to " + revision + ", the head revision is R" + headRevision);
+    }
+}
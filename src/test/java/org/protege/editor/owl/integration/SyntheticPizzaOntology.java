@@ -0,0 +1,164 @@
+package org.protege.editor.owl.integration;
+
+import static org.semanticweb.owlapi.apibinding.OWLFunctionalSyntaxFactory.AnnotationAssertion;
+import static org.semanticweb.owlapi.apibinding.OWLFunctionalSyntaxFactory.Class;
+import static org.semanticweb.owlapi.apibinding.OWLFunctionalSyntaxFactory.Declaration;
+import static org.semanticweb.owlapi.apibinding.OWLFunctionalSyntaxFactory.DisjointClasses;
+import static org.semanticweb.owlapi.apibinding.OWLFunctionalSyntaxFactory.IRI;
+import static org.semanticweb.owlapi.apibinding.OWLFunctionalSyntaxFactory.Literal;
+import static org.semanticweb.owlapi.apibinding.OWLFunctionalSyntaxFactory.ObjectProperty;
+import static org.semanticweb.owlapi.apibinding.OWLFunctionalSyntaxFactory.ObjectPropertyDomain;
+import static org.semanticweb.owlapi.apibinding.OWLFunctionalSyntaxFactory.ObjectPropertyRange;
+import static org.semanticweb.owlapi.apibinding.OWLFunctionalSyntaxFactory.ObjectSomeValuesFrom;
+import static org.semanticweb.owlapi.apibinding.OWLFunctionalSyntaxFactory.RDFSLabel;
+import static org.semanticweb.owlapi.apibinding.OWLFunctionalSyntaxFactory.SubClassOf;
+
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLAxiom;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLObjectProperty;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyCreationException;
+import org.semanticweb.owlapi.model.OWLOntologyManager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Generates pizza-shaped ontologies of an exact number of axioms: toppings organized under a
+ * few topping categories and named pizzas that are described by their toppings. The output
+ * only depends on the requested size and the seed, so repeated runs produce identical
+ * ontologies.
+ */
+final class SyntheticPizzaOntology {
+
+    static final long DEFAULT_SEED = 20160608L;
+
+    static final String ONTOLOGY_ID = "http://protege.stanford.edu/ontologies/synthetic-pizza.owl";
+
+    private static final String NS = ONTOLOGY_ID + "#";
+
+    private static final OWLClass DOMAIN_CONCEPT = Class(IRI(NS, "DomainConcept"));
+    private static final OWLClass PIZZA = Class(IRI(NS, "Pizza"));
+    private static final OWLClass NAMED_PIZZA = Class(IRI(NS, "NamedPizza"));
+    private static final OWLClass PIZZA_TOPPING = Class(IRI(NS, "PizzaTopping"));
+    private static final OWLObjectProperty HAS_TOPPING = ObjectProperty(IRI(NS, "hasTopping"));
+
+    private static final String[] TOPPING_CATEGORIES = {
+            "CheeseTopping", "MeatTopping", "VegetableTopping", "FishTopping", "SauceTopping", "NutTopping"
+    };
+
+    private static final int MAX_TOPPINGS_PER_PIZZA = 5;
+
+    /**
+     * The number of axioms of the skeleton every generated ontology starts with.
+     */
+    static final int MIN_AXIOMS = 10 + 2 * TOPPING_CATEGORIES.length;
+
+    private final Random random;
+    private final Set<OWLAxiom> axioms = new LinkedHashSet<>();
+    private final List<OWLClass> categories = new ArrayList<>();
+    private final List<OWLClass> toppings = new ArrayList<>();
+
+    private int pizzaCounter = 0;
+
+    private SyntheticPizzaOntology(long seed) {
+        random = new Random(seed);
+    }
+
+    /**
+     * Creates a new ontology in the given manager that contains exactly <code>numberOfAxioms</code>
+     * axioms, using the default seed. The size must be at least {@link #MIN_AXIOMS}.
+     */
+    static OWLOntology generate(OWLOntologyManager manager, int numberOfAxioms) throws OWLOntologyCreationException {
+        return generate(manager, numberOfAxioms, DEFAULT_SEED);
+    }
+
+    static OWLOntology generate(OWLOntologyManager manager, int numberOfAxioms, long seed)
+            throws OWLOntologyCreationException {
+        if (numberOfAxioms < MIN_AXIOMS) {
+            throw new IllegalArgumentException("A synthetic pizza ontology has at least " + MIN_AXIOMS
+                    + " axioms, " + numberOfAxioms + " requested");
+        }
+        SyntheticPizzaOntology generator = new SyntheticPizzaOntology(seed);
+        generator.addSkeleton();
+        while (generator.axioms.size() < numberOfAxioms) {
+            if (generator.toppings.size() < 2 || generator.random.nextInt(3) == 0) {
+                generator.addTopping(numberOfAxioms);
+            }
+            else {
+                generator.addPizza(numberOfAxioms);
+            }
+        }
+        OWLOntology ontology = manager.createOntology(IRI.create(ONTOLOGY_ID));
+        manager.addAxioms(ontology, generator.axioms);
+        return ontology;
+    }
+
+    /**
+     * Returns the ontology sizes used by the scale tests. The default sweep can be overridden
+     * with a comma-separated list in the <code>scale.sizes</code> system property.
+     */
+    static Collection<Object[]> scaleSizes() {
+        String sizes = System.getProperty("scale.sizes", "10000,100000,1000000");
+        List<Object[]> parameters = new ArrayList<>();
+        for (String size : sizes.split(",")) {
+            parameters.add(new Object[] { Integer.valueOf(size.trim()) });
+        }
+        return parameters;
+    }
+
+    private void addSkeleton() {
+        axioms.add(Declaration(DOMAIN_CONCEPT));
+        axioms.add(Declaration(PIZZA));
+        axioms.add(Declaration(NAMED_PIZZA));
+        axioms.add(Declaration(PIZZA_TOPPING));
+        axioms.add(Declaration(HAS_TOPPING));
+        axioms.add(SubClassOf(PIZZA, DOMAIN_CONCEPT));
+        axioms.add(SubClassOf(NAMED_PIZZA, PIZZA));
+        axioms.add(SubClassOf(PIZZA_TOPPING, DOMAIN_CONCEPT));
+        axioms.add(ObjectPropertyDomain(HAS_TOPPING, PIZZA));
+        axioms.add(ObjectPropertyRange(HAS_TOPPING, PIZZA_TOPPING));
+        for (String name : TOPPING_CATEGORIES) {
+            OWLClass category = Class(IRI(NS, name));
+            axioms.add(Declaration(category));
+            axioms.add(SubClassOf(category, PIZZA_TOPPING));
+            categories.add(category);
+        }
+    }
+
+    private void addTopping(int limit) {
+        OWLClass category = categories.get(random.nextInt(categories.size()));
+        OWLClass topping = Class(IRI(NS, "Topping" + toppings.size()));
+        add(limit, Declaration(topping));
+        add(limit, SubClassOf(topping, category));
+        add(limit, AnnotationAssertion(RDFSLabel(), topping.getIRI(), Literal("Topping " + toppings.size(), "en")));
+        if (!toppings.isEmpty()) {
+            add(limit, DisjointClasses(topping, toppings.get(toppings.size() - 1)));
+        }
+        toppings.add(topping);
+    }
+
+    private void addPizza(int limit) {
+        OWLClass pizza = Class(IRI(NS, "Pizza" + pizzaCounter));
+        add(limit, Declaration(pizza));
+        add(limit, SubClassOf(pizza, NAMED_PIZZA));
+        add(limit, AnnotationAssertion(RDFSLabel(), pizza.getIRI(), Literal("Pizza " + pizzaCounter, "en")));
+        int numberOfToppings = 1 + random.nextInt(MAX_TOPPINGS_PER_PIZZA);
+        for (int i = 0; i < numberOfToppings; i++) {
+            OWLClass topping = toppings.get(random.nextInt(toppings.size()));
+            add(limit, SubClassOf(pizza, ObjectSomeValuesFrom(HAS_TOPPING, topping)));
+        }
+        pizzaCounter++;
+    }
+
+    private void add(int limit, OWLAxiom axiom) {
+        if (axioms.size() < limit) {
+            axioms.add(axiom);
+        }
+    }
+}